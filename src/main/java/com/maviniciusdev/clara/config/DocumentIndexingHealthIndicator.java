@@ -0,0 +1,26 @@
+package com.maviniciusdev.clara.config;
+
+import com.maviniciusdev.clara.service.DocumentIndexingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Andamento da indexação no /actuator/health. Fica sempre UP: a aplicação
+ * atende com o que já está no vector store enquanto a indexação roda, então
+ * ela não entra no grupo de readiness.
+ */
+@Component("documentIndexing")
+@RequiredArgsConstructor
+public class DocumentIndexingHealthIndicator implements HealthIndicator {
+
+    private final DocumentIndexingService documentIndexingService;
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetails(documentIndexingService.indexingStatus())
+                .build();
+    }
+}
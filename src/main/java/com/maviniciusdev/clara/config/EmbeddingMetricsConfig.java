@@ -0,0 +1,25 @@
+package com.maviniciusdev.clara.config;
+
+import com.maviniciusdev.clara.service.CountingEmbeddingModel;
+import com.maviniciusdev.clara.service.EmbeddingMetrics;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Conta as chamadas feitas pelo vector store (indexação) e pelas buscas.
+ *
+ * O envoltório é um bean à parte, primário para quem injeta
+ * {@link org.springframework.ai.embedding.EmbeddingModel}. O bean do Ollama
+ * continua registrado com o tipo concreto para quem precisar dele.
+ */
+@Configuration
+public class EmbeddingMetricsConfig {
+
+    @Bean
+    @Primary
+    CountingEmbeddingModel countingEmbeddingModel(OllamaEmbeddingModel ollamaEmbeddingModel, EmbeddingMetrics metrics) {
+        return new CountingEmbeddingModel(ollamaEmbeddingModel, metrics);
+    }
+}
@@ -0,0 +1,32 @@
+package com.maviniciusdev.clara.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+
+/**
+ * Subsistemas que só são usados quando chega um documento pelo WhatsApp.
+ *
+ * Os beans desses tipos passam a ser criados no primeiro uso em vez de no
+ * boot. Os leitores baseados em Tika já criam o parser a cada leitura, então
+ * com a indexação em segundo plano o Tika também sai do caminho de startup.
+ */
+@Configuration
+public class LazySubsystemsConfig {
+
+    private static final List<Class<?>> LAZY_TYPES = List.of(JavaMailSender.class);
+
+    @Bean
+    static BeanFactoryPostProcessor lazySubsystems() {
+        return beanFactory -> {
+            for (Class<?> type : LAZY_TYPES) {
+                for (String name : beanFactory.getBeanNamesForType(type, true, false)) {
+                    beanFactory.getBeanDefinition(name).setLazyInit(true);
+                }
+            }
+        };
+    }
+}
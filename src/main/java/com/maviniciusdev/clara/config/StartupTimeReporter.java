@@ -0,0 +1,35 @@
+package com.maviniciusdev.clara.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+/**
+ * Registra o tempo de cold start (JVM até a aplicação pronta), indicando se o
+ * boot usou o código gerado pelo AOT e o arquivo CDS do perfil fast-start.
+ */
+@Slf4j
+@Component
+public class StartupTimeReporter {
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportStartupTime(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        boolean cds = runtime.getInputArguments().stream()
+                .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"));
+
+        log.info("🚀 Pronta em {} ms desde o início da JVM (contexto Spring: {} ms, AOT: {}, CDS: {})",
+                runtime.getUptime(),
+                event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1,
+                AotDetector.useGeneratedArtifacts() ? "sim" : "não",
+                cds ? "sim" : "não");
+    }
+}
@@ -0,0 +1,51 @@
+package com.maviniciusdev.clara.controller;
+
+import com.maviniciusdev.clara.service.DocumentRoutingService;
+import com.maviniciusdev.clara.service.EmbeddingMetrics;
+import com.maviniciusdev.clara.service.IndexStatistics;
+import com.maviniciusdev.clara.service.QuantizedVectorStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Painel operacional: conteúdo do vector store, chamadas de embedding e
+ * classificação de documentos recebidos. Tudo vem de contadores mantidos em
+ * memória; só o tamanho em disco consulta o catálogo do Postgres. As métricas
+ * de busca (latência e distribuição dos scores) ficam em
+ * {@code /api/documents/retrieval/metrics}.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final IndexStatistics indexStatistics;
+    private final EmbeddingMetrics embeddingMetrics;
+    private final DocumentRoutingService documentRoutingService;
+    private final ObjectProvider<QuantizedVectorStore> memoryIndex;
+
+    @GetMapping("/index")
+    public ResponseEntity<Map<String, Object>> index() {
+        Map<String, Object> values = new LinkedHashMap<>(indexStatistics.snapshot());
+        values.put("storage", indexStatistics.storageSizes());
+        memoryIndex.ifAvailable(store -> values.put("memoryIndex", store.stats()));
+        return ResponseEntity.ok(values);
+    }
+
+    @GetMapping("/embeddings")
+    public ResponseEntity<Map<String, Object>> embeddings() {
+        return ResponseEntity.ok(embeddingMetrics.snapshot());
+    }
+
+    @GetMapping("/routing")
+    public ResponseEntity<Map<String, Object>> routing() {
+        return ResponseEntity.ok(documentRoutingService.metrics());
+    }
+}
@@ -0,0 +1,100 @@
+package com.maviniciusdev.clara.controller;
+
+import com.maviniciusdev.clara.dto.BroadcastRequest;
+import com.maviniciusdev.clara.entity.BroadcastJob;
+import com.maviniciusdev.clara.service.BroadcastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API do envio em massa. Manda mensagens pela conta Twilio do SESI, então
+ * toda chamada exige o cabeçalho {@code X-Admin-Token} igual a
+ * {@code broadcast.admin-token}; sem token configurado a API fica desligada.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/broadcasts")
+@RequiredArgsConstructor
+public class BroadcastController {
+
+    private static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final BroadcastService broadcastService;
+
+    @Value("${broadcast.admin-token:}")
+    private String adminToken;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                      @RequestBody BroadcastRequest request) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(403).build();
+        }
+        try {
+            BroadcastJob job = broadcastService.createJob(request);
+            return ResponseEntity.accepted().body(Map.of(
+                    "id", job.getId(),
+                    "totalRecipients", job.getTotalRecipients()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> list(@RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(broadcastService.list());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> status(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                      @PathVariable Long id) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(403).build();
+        }
+        return broadcastService.status(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<Void> pause(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                      @PathVariable Long id) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(403).build();
+        }
+        return broadcastService.pause(id) ? ResponseEntity.ok().build() : ResponseEntity.status(409).build();
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<Void> resume(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                       @PathVariable Long id) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(403).build();
+        }
+        return broadcastService.resume(id) ? ResponseEntity.ok().build() : ResponseEntity.status(409).build();
+    }
+
+    private boolean authorized(String token) {
+        if (adminToken == null || adminToken.isBlank()) {
+            log.warn("🔒 Chamada à API de envio em massa recusada: broadcast.admin-token não configurado");
+            return false;
+        }
+        if (token == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("🔒 Chamada à API de envio em massa recusada: token inválido");
+            return false;
+        }
+        return true;
+    }
+}
@@ -1,25 +1,67 @@
 package com.maviniciusdev.clara.controller;
 
 import com.maviniciusdev.clara.service.DocumentIndexingService;
+import com.maviniciusdev.clara.service.KnowledgePartition;
+import com.maviniciusdev.clara.service.KnowledgePartitionRegistry;
+import com.maviniciusdev.clara.service.RagMetrics;
+import com.maviniciusdev.clara.service.reader.DocumentReaderRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/documents")
 @RequiredArgsConstructor
 public class DocumentController {
 
     private final DocumentIndexingService documentIndexingService;
+    private final DocumentReaderRegistry documentReaderRegistry;
+    private final RagMetrics ragMetrics;
+    private final KnowledgePartitionRegistry knowledgePartitions;
 
+    /**
+     * Reindexa todas as bases ou, com {@code ?partition=}, só a de uma unidade
+     * (as tabelas das outras não são tocadas).
+     */
     @PostMapping("/reindex")
-    public ResponseEntity<String> reindexDocuments() {
-        documentIndexingService.indexAllDocuments();
-        return ResponseEntity.ok("Indexação iniciada! Verifique os logs.");
+    public ResponseEntity<String> reindexDocuments(@RequestParam(required = false) String partition) {
+        if (partition == null || partition.isBlank()) {
+            if (!documentIndexingService.indexAllDocuments()) {
+                return ResponseEntity.status(409).body("Indexação já está em andamento.");
+            }
+            return ResponseEntity.ok("Indexação iniciada! Verifique os logs.");
+        }
+
+        Optional<KnowledgePartition> target = knowledgePartitions.byName(partition);
+        if (target.isEmpty()) {
+            return ResponseEntity.status(404).body("Base de conhecimento não encontrada: " + partition);
+        }
+        if (!documentIndexingService.indexPartition(target.get())) {
+            return ResponseEntity.status(409).body("Indexação da base " + partition + " já está em andamento.");
+        }
+        return ResponseEntity.ok("Indexação da base " + partition + " iniciada! Verifique os logs.");
     }
 
     @GetMapping("/status")
     public ResponseEntity<String> status() {
         return ResponseEntity.ok("Serviço de documentos funcionando!");
     }
+
+    @GetMapping("/indexing")
+    public ResponseEntity<Map<String, Object>> indexingStatus() {
+        return ResponseEntity.ok(documentIndexingService.indexingStatus());
+    }
+
+    @GetMapping("/readers/metrics")
+    public ResponseEntity<Map<String, Object>> readerMetrics() {
+        return ResponseEntity.ok(documentReaderRegistry.metrics());
+    }
+
+    @GetMapping("/retrieval/metrics")
+    public ResponseEntity<Map<String, Object>> retrievalMetrics() {
+        return ResponseEntity.ok(ragMetrics.snapshot());
+    }
 }
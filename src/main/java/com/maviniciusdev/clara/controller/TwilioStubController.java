@@ -0,0 +1,127 @@
+package com.maviniciusdev.clara.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Twilio falso para testes locais de envio em massa: responde como a API de
+ * mensagens, com latência simulada, limite de mensagens por segundo (429,
+ * código 20429) e uma taxa opcional de números recusados (400, código 21211).
+ * Só existe com {@code whatsapp.stub.enabled=true}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/stub/twilio")
+@ConditionalOnProperty(name = "whatsapp.stub.enabled", havingValue = "true")
+public class TwilioStubController {
+
+    private static final int RECENT_MESSAGES = 50;
+
+    @Value("${whatsapp.stub.latency-ms:150}")
+    private long latencyMs;
+
+    @Value("${whatsapp.stub.max-per-second:10}")
+    private int maxPerSecond;
+
+    @Value("${whatsapp.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicLong sentThisSecond = new AtomicLong();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Deque<Map<String, String>> recent = new ArrayDeque<>();
+
+    @PostMapping(value = "/2010-04-01/Accounts/{accountSid}/Messages.json",
+            consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> createMessage(@PathVariable String accountSid,
+                                                             @RequestParam("To") String to,
+                                                             @RequestParam("From") String from,
+                                                             @RequestParam(value = "Body", required = false) String body,
+                                                             @RequestParam(value = "ContentSid", required = false) String contentSid,
+                                                             @RequestParam(value = "ContentVariables", required = false) String contentVariables)
+            throws InterruptedException {
+        if ((body == null || body.isBlank()) && (contentSid == null || contentSid.isBlank())) {
+            rejected.increment();
+            return ResponseEntity.status(400).body(error(21619, "A text message body or media urls must be specified."));
+        }
+        // Sem modelo o corpo mostrado é o texto livre; com modelo, o SID e as variáveis
+        String shown = contentSid != null && !contentSid.isBlank()
+                ? contentSid + (contentVariables != null ? " " + contentVariables : "")
+                : body;
+
+        if (!tryAcquire()) {
+            rateLimited.increment();
+            return ResponseEntity.status(429).body(error(20429, "Too Many Requests"));
+        }
+
+        TimeUnit.MILLISECONDS.sleep(latencyMs);
+
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            rejected.increment();
+            return ResponseEntity.status(400).body(error(21211, "The 'To' number " + to + " is not a valid phone number."));
+        }
+
+        String sid = "SM" + UUID.randomUUID().toString().replace("-", "");
+        accepted.increment();
+        synchronized (recent) {
+            recent.addFirst(Map.of("sid", sid, "to", to, "body", shown));
+            if (recent.size() > RECENT_MESSAGES) {
+                recent.removeLast();
+            }
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("sid", sid);
+        message.put("account_sid", accountSid);
+        message.put("to", to);
+        message.put("from", from);
+        message.put("body", shown);
+        message.put("status", "queued");
+        return ResponseEntity.status(201).body(message);
+    }
+
+    @GetMapping("/messages")
+    public ResponseEntity<Map<String, Object>> messages() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("accepted", accepted.sum());
+        values.put("rateLimited", rateLimited.sum());
+        values.put("rejected", rejected.sum());
+        synchronized (recent) {
+            values.put("recent", new ArrayList<>(recent));
+        }
+        return ResponseEntity.ok(values);
+    }
+
+    /**
+     * Janela fixa de um segundo, como o limite de throughput da conta.
+     */
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long seen = currentSecond.get();
+        if (seen != second && currentSecond.compareAndSet(seen, second)) {
+            sentThisSecond.set(0);
+        }
+        return sentThisSecond.incrementAndGet() <= maxPerSecond;
+    }
+
+    private static Map<String, Object> error(int code, String message) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("code", code);
+        values.put("message", message);
+        values.put("more_info", "https://www.twilio.com/docs/errors/" + code);
+        values.put("status", code == 20429 ? 429 : 400);
+        return values;
+    }
+}
@@ -1,19 +1,26 @@
 package com.maviniciusdev.clara.controller;
 
 import com.maviniciusdev.clara.dto.TwilioWebhookRequest;
+import com.maviniciusdev.clara.service.BroadcastService;
+import com.maviniciusdev.clara.service.MessageCoalescingService;
 import com.maviniciusdev.clara.service.MessageProcessingService;
 import com.maviniciusdev.clara.service.DocumentHandlerService;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import com.maviniciusdev.clara.service.KnowledgePartition;
+import com.maviniciusdev.clara.service.KnowledgePartitionRegistry;
+import com.maviniciusdev.clara.service.MessageSplitter;
+import com.maviniciusdev.clara.service.WhatsAppSender;
+import com.maviniciusdev.clara.service.WorkScheduler;
+import com.maviniciusdev.clara.service.WorkScheduler.Lane;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -24,13 +31,19 @@ public class WhatsAppWebhookController {
 
     private final MessageProcessingService messageProcessingService;
     private final DocumentHandlerService documentHandlerService;
+    private final MessageCoalescingService messageCoalescingService;
+    private final MessageSplitter messageSplitter;
+    private final WorkScheduler workScheduler;
+    private final WhatsAppSender whatsAppSender;
+    private final KnowledgePartitionRegistry knowledgePartitions;
+    private final BroadcastService broadcastService;
 
-    @Value("${twilio.whatsapp.number}")
-    private String twilioWhatsAppNumber;
-
-    private static final int MAX_MESSAGE_LENGTH = 1600;
     private static final int DELAY_BETWEEN_MESSAGES_MS = 1000;
 
+    private static final String BUSY_MESSAGE =
+            "Estou atendendo muitas pessoas agora. 😅\n\n" +
+                    "Pode me mandar de novo daqui a alguns minutos?";
+
     @PostMapping(value = "/whatsapp", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
     public ResponseEntity<Void> handleWhatsAppMessage(TwilioWebhookRequest request) {
         try {
@@ -48,16 +61,21 @@ public class WhatsAppWebhookController {
                     Integer.parseInt(request.getNumMedia()) > 0) {
 
                 log.info("📎 Documento detectado");
-                handleMediaMessage(request);
+                if (!workScheduler.submit(Lane.MEDIA, () -> handleMediaMessage(request))) {
+                    replyBusy(from);
+                }
                 return ResponseEntity.ok().build();
             }
 
             // ============================================
             // PROCESSAR MENSAGEM DE TEXTO NORMAL
             // ============================================
-            log.info("💬 Mensagem de texto");
-            String response = messageProcessingService.processMessage(from, body, profileName);
-            sendWhatsAppMessage(from, response);
+            // Mensagens em sequência do mesmo número viram um turno só
+            // A unidade vem do número que recebeu (ou do mapeamento do cliente)
+            KnowledgePartition partition = knowledgePartitions.resolve(from, request.getTo());
+            log.info("💬 Mensagem de texto (base {})", partition.name());
+            messageCoalescingService.submit(from, body, profileName,
+                    (turnFrom, turnBody, turnProfileName) -> handleTextTurn(turnFrom, turnBody, turnProfileName, partition));
 
             return ResponseEntity.ok().build();
 
@@ -67,6 +85,52 @@ public class WhatsAppWebhookController {
         }
     }
 
+    /**
+     * Classifica o turno de texto (uma ou mais mensagens agrupadas) e o
+     * coloca na fila certa: resposta pronta na fila rápida, RAG na lenta.
+     * O retorno completa quando a resposta sai (ou é descartada), liberando o
+     * próximo turno do mesmo número.
+     */
+    private CompletableFuture<Void> handleTextTurn(String from, String body, String profileName, KnowledgePartition partition) {
+        CompletableFuture<Void> answered = new CompletableFuture<>();
+        Optional<List<String>> cannedReply = messageProcessingService.findCannedReply(body, profileName);
+
+        if (cannedReply.isPresent()) {
+            if (!workScheduler.submit(Lane.INSTANT, completing(answered, () -> sendWhatsAppParts(from, cannedReply.get())))) {
+                log.error("❌ Fila rápida cheia: resposta pronta para {} descartada", from);
+                answered.complete(null);
+            }
+            return answered;
+        }
+
+        boolean accepted = workScheduler.submit(Lane.RAG, completing(answered,
+                () -> sendWhatsAppParts(from, messageProcessingService.answerWithRag(body, partition))));
+        if (!accepted) {
+            replyBusy(from);
+            answered.complete(null);
+        }
+        return answered;
+    }
+
+    private static Runnable completing(CompletableFuture<Void> done, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } finally {
+                done.complete(null);
+            }
+        };
+    }
+
+    /**
+     * Fila lenta cheia: avisa pela fila rápida em vez de deixar sem resposta
+     */
+    private void replyBusy(String from) {
+        if (!workScheduler.submit(Lane.INSTANT, () -> sendWhatsAppMessage(from, BUSY_MESSAGE))) {
+            log.error("❌ Filas cheias: {} ficou sem resposta (nem o aviso de ocupado coube)", from);
+        }
+    }
+
     /**
      * Processa mensagens com documentos/mídias anexadas
      */
@@ -99,28 +163,54 @@ public class WhatsAppWebhookController {
         }
     }
 
+    /**
+     * Status callback do Twilio (twilio.status-callback-url): guarda a entrega
+     * de fato (delivered, read, undelivered...) das mensagens do envio em massa.
+     */
+    @PostMapping(value = "/whatsapp/status", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> handleMessageStatus(@RequestParam("MessageSid") String messageSid,
+                                                    @RequestParam("MessageStatus") String messageStatus,
+                                                    @RequestParam(value = "ErrorCode", required = false) String errorCode) {
+        try {
+            broadcastService.recordDeliveryStatus(messageSid, messageStatus, errorCode);
+        } catch (Exception e) {
+            log.error("Erro ao registrar status de entrega de {}", messageSid, e);
+        }
+        // Sempre 200: o Twilio não reenvia callbacks e só registraria erro no console
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/status")
     public ResponseEntity<String> status() {
         return ResponseEntity.ok("Webhook Clara está funcionando! ✅");
     }
 
+    /**
+     * Ocupação, fila e tempos de espera de cada classe de trabalho
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> lanes() {
+        return ResponseEntity.ok(workScheduler.metrics());
+    }
+
     /**
      * Envia mensagem WhatsApp dividida em partes se necessário
      */
     private void sendWhatsAppMessage(String to, String messageBody) {
-        try {
-            List<String> messageParts = splitMessageNaturally(messageBody);
+        sendWhatsAppParts(to, messageSplitter.split(messageBody));
+    }
 
+    /**
+     * Envia partes já divididas, com intervalo entre elas
+     */
+    private void sendWhatsAppParts(String to, List<String> messageParts) {
+        try {
             log.info("Enviando resposta em {} parte(s)", messageParts.size());
 
             for (int i = 0; i < messageParts.size(); i++) {
                 String part = messageParts.get(i);
 
-                Message.creator(
-                        new PhoneNumber(to),
-                        new PhoneNumber(twilioWhatsAppNumber),
-                        part
-                ).create();
+                whatsAppSender.send(to, part);
 
                 log.info("✓ Parte {}/{} enviada ({} caracteres)",
                         i + 1, messageParts.size(), part.length());
@@ -141,104 +231,4 @@ public class WhatsAppWebhookController {
             log.error("Erro ao enviar mensagem WhatsApp", e);
         }
     }
-
-    /**
-     * Divide mensagem longa de forma natural, respeitando parágrafos e frases
-     */
-    private List<String> splitMessageNaturally(String message) {
-        List<String> parts = new ArrayList<>();
-
-        if (message.length() <= MAX_MESSAGE_LENGTH) {
-            parts.add(message);
-            return parts;
-        }
-
-        // Dividir por parágrafos primeiro
-        String[] paragraphs = message.split("\n\n");
-        StringBuilder currentPart = new StringBuilder();
-
-        for (int i = 0; i < paragraphs.length; i++) {
-            String paragraph = paragraphs[i];
-
-            // Se adicionar este parágrafo ultrapassar o limite
-            if (currentPart.length() + paragraph.length() + 2 > MAX_MESSAGE_LENGTH) {
-
-                // Se o currentPart não está vazio, salva
-                if (currentPart.length() > 0) {
-                    parts.add(currentPart.toString().trim());
-                    currentPart = new StringBuilder();
-                }
-
-                // Se o parágrafo sozinho é maior que o limite, dividir por frases
-                if (paragraph.length() > MAX_MESSAGE_LENGTH) {
-                    parts.addAll(splitLongParagraph(paragraph));
-                } else {
-                    currentPart.append(paragraph);
-
-                    // Adicionar quebra de linha se não for o último
-                    if (i < paragraphs.length - 1) {
-                        currentPart.append("\n\n");
-                    }
-                }
-            } else {
-                // Adicionar parágrafo ao currentPart
-                if (currentPart.length() > 0) {
-                    currentPart.append("\n\n");
-                }
-                currentPart.append(paragraph);
-            }
-        }
-
-        // Adicionar última parte se houver
-        if (currentPart.length() > 0) {
-            parts.add(currentPart.toString().trim());
-        }
-
-        return parts;
-    }
-
-    /**
-     * Divide parágrafo muito longo por frases
-     */
-    private List<String> splitLongParagraph(String paragraph) {
-        List<String> parts = new ArrayList<>();
-
-        // Dividir por frases (pontos, interrogações, exclamações)
-        String[] sentences = paragraph.split("(?<=[.!?])\\s+");
-        StringBuilder currentPart = new StringBuilder();
-
-        for (String sentence : sentences) {
-
-            // Se adicionar esta frase ultrapassar o limite
-            if (currentPart.length() + sentence.length() + 1 > MAX_MESSAGE_LENGTH) {
-
-                // Salvar parte atual
-                if (currentPart.length() > 0) {
-                    parts.add(currentPart.toString().trim());
-                    currentPart = new StringBuilder();
-                }
-
-                // Se a frase sozinha é maior que o limite (raro), força quebra
-                if (sentence.length() > MAX_MESSAGE_LENGTH) {
-                    parts.add(sentence.substring(0, MAX_MESSAGE_LENGTH - 3) + "...");
-                    sentence = sentence.substring(MAX_MESSAGE_LENGTH - 3);
-                }
-
-                currentPart.append(sentence);
-            } else {
-                // Adicionar frase
-                if (currentPart.length() > 0) {
-                    currentPart.append(" ");
-                }
-                currentPart.append(sentence);
-            }
-        }
-
-        // Adicionar última parte
-        if (currentPart.length() > 0) {
-            parts.add(currentPart.toString().trim());
-        }
-
-        return parts;
-    }
 }
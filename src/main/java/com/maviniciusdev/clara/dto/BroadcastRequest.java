@@ -0,0 +1,31 @@
+package com.maviniciusdev.clara.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class BroadcastRequest {
+
+    private String name;
+
+    // Texto livre; {nome} vira o primeiro nome do destinatário. O WhatsApp só
+    // entrega texto livre dentro da janela de 24h desde a última mensagem do cliente
+    private String template;
+
+    // Modelo aprovado (Content API do Twilio, "HX..."), necessário para lembretes
+    // fora da janela de 24h. Tem precedência sobre o template
+    private String contentSid;
+
+    // Variáveis do modelo ({"1": "{nome}", "2": "30/11"}); {nome} também vale aqui
+    private Map<String, String> contentVariables;
+
+    private List<Recipient> recipients;
+
+    @Data
+    public static class Recipient {
+        private String phone;
+        private String name;
+    }
+}
@@ -10,6 +10,7 @@ public class TwilioWebhookRequest {
     private String From;
     private String Body;
     private String ProfileName;
+    private String To;                 // Número Twilio que recebeu (define a unidade)
 
     // ⭐ NOVOS CAMPOS PARA MÍDIA
     private String NumMedia;           // Número de arquivos enviados
@@ -0,0 +1,58 @@
+package com.maviniciusdev.clara.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envio em massa de um modelo de mensagem para uma lista de números.
+ *
+ * Fora da janela de 24h de atendimento o WhatsApp só entrega modelos
+ * aprovados ({@code contentSid}, da Content API do Twilio); o texto livre em
+ * {@code template} só serve para quem falou com a Clara nas últimas 24h.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "broadcast_job")
+public class BroadcastJob {
+
+    public enum Status {
+        RUNNING,
+        PAUSED,
+        COMPLETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Texto livre; nulo quando o envio usa um modelo aprovado
+    @Column(columnDefinition = "text")
+    private String template;
+
+    @Column(length = 64)
+    private String contentSid;
+
+    // Variáveis do modelo em JSON ({"1": "{nome}", ...})
+    @Column(columnDefinition = "text")
+    private String contentVariables;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int totalRecipients;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,67 @@
+package com.maviniciusdev.clara.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Destinatário de um envio em massa. O status é o checkpoint do envio:
+ * SENDING é gravado antes de chamar o Twilio, então um destinatário que
+ * ficou em SENDING após uma queda vira UNKNOWN e não é reenviado.
+ *
+ * SENT quer dizer só "aceita pela API do Twilio". A entrega de fato chega
+ * depois pelo status callback e fica em {@code deliveryStatus} (delivered,
+ * read, undelivered, failed).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "broadcast_recipient",
+        indexes = {
+                @Index(name = "idx_broadcast_recipient_job_status", columnList = "job_id, status"),
+                // Status callback do Twilio procura pelo SID
+                @Index(name = "idx_broadcast_recipient_message_sid", columnList = "message_sid")
+        })
+public class BroadcastRecipient {
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED,
+        UNKNOWN
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false, length = 32)
+    private String phone;
+
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(length = 64)
+    private String messageSid;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(length = 16)
+    private String deliveryStatus;
+
+    private LocalDateTime updatedAt;
+}
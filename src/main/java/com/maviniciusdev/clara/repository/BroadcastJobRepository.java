@@ -0,0 +1,13 @@
+package com.maviniciusdev.clara.repository;
+
+import com.maviniciusdev.clara.entity.BroadcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+
+    List<BroadcastJob> findByStatus(BroadcastJob.Status status);
+
+    List<BroadcastJob> findAllByOrderByIdDesc();
+}
@@ -0,0 +1,79 @@
+package com.maviniciusdev.clara.repository;
+
+import com.maviniciusdev.clara.entity.BroadcastRecipient;
+import com.maviniciusdev.clara.entity.BroadcastRecipient.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BroadcastRecipientRepository extends JpaRepository<BroadcastRecipient, Long> {
+
+    List<BroadcastRecipient> findByJobIdAndStatusOrderByIdAsc(Long jobId, Status status, Pageable pageable);
+
+    @Query("SELECT r.status, count(r) FROM BroadcastRecipient r WHERE r.jobId = :jobId GROUP BY r.status")
+    List<Object[]> countByStatus(@Param("jobId") Long jobId);
+
+    @Query("SELECT r.deliveryStatus, count(r) FROM BroadcastRecipient r "
+            + "WHERE r.jobId = :jobId AND r.deliveryStatus IS NOT NULL GROUP BY r.deliveryStatus")
+    List<Object[]> countByDeliveryStatus(@Param("jobId") Long jobId);
+
+    Optional<BroadcastRecipient> findByMessageSid(String messageSid);
+
+    /**
+     * Troca o status só se ele ainda for {@code from}: reserva o destinatário
+     * para envio, devolvendo 0 se outro worker já pegou.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastRecipient r SET r.status = :to, r.attempts = r.attempts + 1, r.updatedAt = :now "
+            + "WHERE r.id = :id AND r.status = :from")
+    int claim(@Param("id") Long id, @Param("from") Status from, @Param("to") Status to,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Desfaz um {@link #claim}: volta o status e a tentativa que não chegou a
+     * acontecer (ex.: reserva feita enquanto a aplicação desligava).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastRecipient r SET r.status = :to, r.attempts = r.attempts - 1, r.updatedAt = :now "
+            + "WHERE r.id = :id AND r.status = :from")
+    int release(@Param("id") Long id, @Param("from") Status from, @Param("to") Status to,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastRecipient r SET r.status = :status, r.messageSid = :sid, r.error = :error, "
+            + "r.updatedAt = :now WHERE r.id = :id")
+    int finish(@Param("id") Long id, @Param("status") Status status, @Param("sid") String sid,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+
+    /**
+     * Grava o status de entrega vindo do status callback do Twilio, mantendo o
+     * erro anterior quando o callback não traz código de erro.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastRecipient r SET r.deliveryStatus = :deliveryStatus, "
+            + "r.error = COALESCE(:error, r.error), r.updatedAt = :now WHERE r.id = :id")
+    int updateDeliveryStatus(@Param("id") Long id, @Param("deliveryStatus") String deliveryStatus,
+                             @Param("error") String error, @Param("now") LocalDateTime now);
+
+    /**
+     * Move todos os destinatários do job de um status para outro (ex.: os que
+     * ficaram em SENDING numa queda viram UNKNOWN).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BroadcastRecipient r SET r.status = :to, r.updatedAt = :now "
+            + "WHERE r.jobId = :jobId AND r.status = :from")
+    int moveAll(@Param("jobId") Long jobId, @Param("from") Status from, @Param("to") Status to,
+                @Param("now") LocalDateTime now);
+}
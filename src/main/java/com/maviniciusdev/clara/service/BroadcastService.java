@@ -0,0 +1,560 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maviniciusdev.clara.dto.BroadcastRequest;
+import com.maviniciusdev.clara.entity.BroadcastJob;
+import com.maviniciusdev.clara.entity.BroadcastRecipient;
+import com.maviniciusdev.clara.entity.BroadcastRecipient.Status;
+import com.maviniciusdev.clara.repository.BroadcastJobRepository;
+import com.maviniciusdev.clara.repository.BroadcastRecipientRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Envio em massa (lembretes de renovação de PCMSO/PGR etc.).
+ *
+ * Cada job percorre os destinatários PENDING em páginas, respeitando um
+ * limite global de mensagens por segundo (o limite é da conta Twilio, não do
+ * job). O status de cada destinatário no Postgres é o checkpoint: ele vira
+ * SENDING antes da chamada ao Twilio e SENT/FAILED depois. Após uma queda,
+ * quem ficou em SENDING vira UNKNOWN e não é reenviado; o resto continua de
+ * onde parou.
+ *
+ * Lembretes para quem não falou com a Clara nas últimas 24h precisam de um
+ * modelo aprovado ({@code contentSid}); texto livre fora da janela é aceito
+ * pela API e falha depois (erro 63016). Por isso SENT quer dizer só "aceita
+ * pelo Twilio": a entrega chega pelo status callback
+ * ({@link #recordDeliveryStatus}) e fica em {@code deliveryStatus}.
+ */
+@Slf4j
+@Service
+public class BroadcastService {
+
+    private static final String NAME_PLACEHOLDER = "{nome}";
+    private static final int INSERT_CHUNK = 500;
+    private static final Pattern CONTENT_SID = Pattern.compile("HX[0-9a-fA-F]{32}");
+    private static final TypeReference<LinkedHashMap<String, String>> VARIABLES = new TypeReference<>() {};
+
+    // Ordem dos status de entrega do Twilio; callbacks fora de ordem não fazem o status voltar
+    private static final List<String> DELIVERY_ORDER = List.of("queued", "sending", "sent", "delivered", "read");
+    private static final Set<String> DELIVERY_FAILURES = Set.of("undelivered", "failed");
+
+    private final BroadcastJobRepository jobRepository;
+    private final BroadcastRecipientRepository recipientRepository;
+    private final WhatsAppSender whatsAppSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final int pageSize;
+    private final int maxAttempts;
+    private final long rateLimitBackoffMs;
+    private final double ratePerSecond;
+    private final boolean resumeOnStartup;
+    private final long shutdownTimeoutMs;
+
+    private final ExecutorService senders;
+    private final RateLimiter rateLimiter;
+    private final ConcurrentMap<Long, JobRun> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Execução em andamento de um job, com contadores desta execução.
+     */
+    private static class JobRun {
+        final long startNanos = System.nanoTime();
+        final LongAdder sent = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        volatile boolean pauseRequested;
+        volatile Thread thread;
+    }
+
+    public BroadcastService(BroadcastJobRepository jobRepository,
+                            BroadcastRecipientRepository recipientRepository,
+                            WhatsAppSender whatsAppSender,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${broadcast.rate-per-second:10}") double ratePerSecond,
+                            @Value("${broadcast.worker-threads:4}") int workerThreads,
+                            @Value("${broadcast.page-size:100}") int pageSize,
+                            @Value("${broadcast.max-attempts:3}") int maxAttempts,
+                            @Value("${broadcast.rate-limit-backoff-ms:2000}") long rateLimitBackoffMs,
+                            @Value("${broadcast.resume-on-startup:true}") boolean resumeOnStartup,
+                            @Value("${broadcast.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.jobRepository = jobRepository;
+        this.recipientRepository = recipientRepository;
+        this.whatsAppSender = whatsAppSender;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ratePerSecond = ratePerSecond;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.rateLimitBackoffMs = rateLimitBackoffMs;
+        this.resumeOnStartup = resumeOnStartup;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.rateLimiter = new RateLimiter(ratePerSecond);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, workerThreads), r -> {
+            Thread thread = new Thread(r, "broadcast-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Jobs que estavam rodando quando a aplicação caiu continuam sozinhos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        try {
+            for (BroadcastJob job : jobRepository.findByStatus(BroadcastJob.Status.RUNNING)) {
+                log.info("📣 Retomando envio em massa #{} ({})", job.getId(), job.getName());
+                start(job.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Não foi possível retomar envios em massa: {}", e.getMessage());
+        }
+    }
+
+    public BroadcastJob createJob(BroadcastRequest request) {
+        boolean usesContent = request.getContentSid() != null && !request.getContentSid().isBlank();
+        if (usesContent && !CONTENT_SID.matcher(request.getContentSid().trim()).matches()) {
+            throw new IllegalArgumentException("contentSid inválido (esperado HX seguido de 32 caracteres hexadecimais)");
+        }
+        if (!usesContent && (request.getTemplate() == null || request.getTemplate().isBlank())) {
+            throw new IllegalArgumentException("informe contentSid (modelo aprovado) ou template");
+        }
+        if (request.getRecipients() == null || request.getRecipients().isEmpty()) {
+            throw new IllegalArgumentException("a lista de destinatários está vazia");
+        }
+
+        // Deduplica pelo número: um mesmo cliente não recebe duas vezes
+        Map<String, BroadcastRequest.Recipient> unique = new LinkedHashMap<>();
+        for (BroadcastRequest.Recipient recipient : request.getRecipients()) {
+            if (recipient.getPhone() != null && !recipient.getPhone().isBlank()) {
+                unique.putIfAbsent(normalizePhone(recipient.getPhone()), recipient);
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("nenhum destinatário tem telefone preenchido");
+        }
+        if (!usesContent) {
+            // O limite vale para o texto que sai, já com o nome de cada um
+            for (Map.Entry<String, BroadcastRequest.Recipient> entry : unique.entrySet()) {
+                if (render(request.getTemplate(), entry.getValue().getName()).length() > MessageSplitter.MAX_MESSAGE_LENGTH) {
+                    throw new IllegalArgumentException("a mensagem para " + entry.getKey() + " passa de "
+                            + MessageSplitter.MAX_MESSAGE_LENGTH + " caracteres");
+                }
+            }
+        }
+        String contentVariables = usesContent ? toJson(request.getContentVariables()) : null;
+
+        // Job e destinatários numa transação só: uma queda no meio não deixa
+        // job RUNNING com lista parcial para a retomada
+        BroadcastJob job = transactionTemplate.execute(tx -> saveJob(request, contentVariables, unique));
+
+        log.info("📣 Envio em massa #{} criado: {} destinatários", job.getId(), unique.size());
+        start(job.getId());
+        return job;
+    }
+
+    private BroadcastJob saveJob(BroadcastRequest request, String contentVariables,
+                                 Map<String, BroadcastRequest.Recipient> unique) {
+        BroadcastJob job = new BroadcastJob();
+        job.setName(request.getName() != null ? request.getName() : "Envio " + LocalDateTime.now());
+        if (request.getContentSid() != null && !request.getContentSid().isBlank()) {
+            job.setContentSid(request.getContentSid().trim());
+            job.setContentVariables(contentVariables);
+        } else {
+            job.setTemplate(request.getTemplate());
+        }
+        job.setStatus(BroadcastJob.Status.RUNNING);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setTotalRecipients(unique.size());
+        job = jobRepository.save(job);
+
+        List<BroadcastRecipient> batch = new ArrayList<>(INSERT_CHUNK);
+        for (Map.Entry<String, BroadcastRequest.Recipient> entry : unique.entrySet()) {
+            BroadcastRecipient recipient = new BroadcastRecipient();
+            recipient.setJobId(job.getId());
+            recipient.setPhone(entry.getKey());
+            recipient.setName(entry.getValue().getName());
+            recipient.setStatus(Status.PENDING);
+            recipient.setUpdatedAt(LocalDateTime.now());
+            batch.add(recipient);
+
+            if (batch.size() >= INSERT_CHUNK) {
+                recipientRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        recipientRepository.saveAll(batch);
+        return job;
+    }
+
+    public boolean pause(Long jobId) {
+        Optional<BroadcastJob> job = jobRepository.findById(jobId);
+        if (job.isEmpty() || job.get().getStatus() != BroadcastJob.Status.RUNNING) {
+            return false;
+        }
+
+        JobRun run = runs.get(jobId);
+        if (run != null) {
+            run.pauseRequested = true;
+        }
+        job.get().setStatus(BroadcastJob.Status.PAUSED);
+        jobRepository.save(job.get());
+        log.info("⏸️ Envio em massa #{} pausado", jobId);
+        return true;
+    }
+
+    public boolean resume(Long jobId) {
+        Optional<BroadcastJob> job = jobRepository.findById(jobId);
+        if (job.isEmpty() || job.get().getStatus() != BroadcastJob.Status.PAUSED || runs.containsKey(jobId)) {
+            return false;
+        }
+
+        job.get().setStatus(BroadcastJob.Status.RUNNING);
+        jobRepository.save(job.get());
+        start(jobId);
+        return true;
+    }
+
+    /**
+     * Status de entrega vindo do status callback do Twilio. Devolve false
+     * quando o SID não é de um envio em massa (respostas normais da Clara
+     * também passam pelo callback).
+     */
+    public boolean recordDeliveryStatus(String messageSid, String deliveryStatus, String errorCode) {
+        if (messageSid == null || deliveryStatus == null) {
+            return false;
+        }
+        Optional<BroadcastRecipient> recipient = recipientRepository.findByMessageSid(messageSid);
+        if (recipient.isEmpty()) {
+            return false;
+        }
+
+        String status = deliveryStatus.trim().toLowerCase(Locale.ROOT);
+        if (!isAdvance(recipient.get().getDeliveryStatus(), status)) {
+            return true;
+        }
+        String error = errorCode != null && !errorCode.isBlank() ? "Twilio " + errorCode.trim() : null;
+        recipientRepository.updateDeliveryStatus(recipient.get().getId(), status, error, LocalDateTime.now());
+        if (DELIVERY_FAILURES.contains(status)) {
+            log.warn("📵 Envio em massa #{}: mensagem para {} não entregue ({})",
+                    recipient.get().getJobId(), recipient.get().getPhone(), error != null ? error : status);
+        }
+        return true;
+    }
+
+    private static boolean isAdvance(String current, String next) {
+        if (!DELIVERY_FAILURES.contains(next) && !DELIVERY_ORDER.contains(next)) {
+            return false;
+        }
+        if (current == null) {
+            return true;
+        }
+        if (DELIVERY_FAILURES.contains(current)) {
+            return false;
+        }
+        return DELIVERY_FAILURES.contains(next) || DELIVERY_ORDER.indexOf(next) > DELIVERY_ORDER.indexOf(current);
+    }
+
+    public Optional<Map<String, Object>> status(Long jobId) {
+        return jobRepository.findById(jobId).map(this::describe);
+    }
+
+    public List<Map<String, Object>> list() {
+        return jobRepository.findAllByOrderByIdDesc().stream().map(this::describe).toList();
+    }
+
+    /**
+     * Para os jobs no fim da página atual e espera os envios em andamento
+     * gravarem o resultado antes de o banco ser fechado. Os jobs continuam
+     * RUNNING e são retomados no próximo startup.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        List<JobRun> active = new ArrayList<>(runs.values());
+        active.forEach(run -> run.pauseRequested = true);
+
+        for (JobRun run : active) {
+            Thread thread = run.thread;
+            if (thread != null) {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        }
+
+        senders.shutdown();
+        if (!senders.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            log.warn("⚠️ Envios em massa ainda em andamento no desligamento; eles ficarão como UNKNOWN");
+        }
+    }
+
+    private Map<String, Object> describe(BroadcastJob job) {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Status status : Status.values()) {
+            byStatus.put(status.name(), 0L);
+        }
+        for (Object[] row : recipientRepository.countByStatus(job.getId())) {
+            byStatus.put(row[0].toString(), (Long) row[1]);
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", job.getId());
+        values.put("name", job.getName());
+        values.put("status", job.getStatus());
+        values.put("createdAt", job.getCreatedAt());
+        values.put("finishedAt", job.getFinishedAt());
+        values.put("totalRecipients", job.getTotalRecipients());
+        values.put("contentSid", job.getContentSid());
+        values.put("recipients", byStatus);
+
+        // SENT é "aceita pelo Twilio"; a entrega de fato vem do status callback
+        Map<String, Long> byDelivery = new LinkedHashMap<>();
+        for (Object[] row : recipientRepository.countByDeliveryStatus(job.getId())) {
+            byDelivery.put(row[0].toString(), (Long) row[1]);
+        }
+        values.put("delivery", byDelivery);
+
+        JobRun run = runs.get(job.getId());
+        if (run != null) {
+            double seconds = (System.nanoTime() - run.startNanos) / 1_000_000_000.0;
+            values.put("messagesPerSecond", seconds > 0 ? run.sent.sum() / seconds : 0);
+            values.put("rateLimitedThisRun", run.rateLimited.sum());
+        }
+        values.put("rateLimitPerSecond", ratePerSecond);
+        return values;
+    }
+
+    private void start(Long jobId) {
+        JobRun run = new JobRun();
+        if (runs.putIfAbsent(jobId, run) != null) {
+            return;
+        }
+
+        // Mensagens que estavam saindo quando parou: não dá para saber se foram
+        int unknown = recipientRepository.moveAll(jobId, Status.SENDING, Status.UNKNOWN, LocalDateTime.now());
+        if (unknown > 0) {
+            log.warn("⚠️ Envio em massa #{}: {} mensagens em andamento na parada ficaram como UNKNOWN", jobId, unknown);
+        }
+
+        Thread thread = new Thread(() -> runJob(jobId, run), "broadcast-job-" + jobId);
+        thread.setDaemon(true);
+        run.thread = thread;
+        thread.start();
+    }
+
+    private void runJob(Long jobId, JobRun run) {
+        try {
+            BroadcastJob job = jobRepository.findById(jobId).orElseThrow();
+
+            while (!run.pauseRequested) {
+                List<BroadcastRecipient> page = recipientRepository.findByJobIdAndStatusOrderByIdAsc(
+                        jobId, Status.PENDING, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Future<?>> inFlight = new ArrayList<>(page.size());
+                for (BroadcastRecipient recipient : page) {
+                    if (run.pauseRequested) {
+                        break;
+                    }
+                    rateLimiter.acquire();
+                    if (recipientRepository.claim(recipient.getId(), Status.PENDING, Status.SENDING, LocalDateTime.now()) != 1) {
+                        continue;
+                    }
+                    try {
+                        inFlight.add(senders.submit(() -> deliver(job, recipient, run)));
+                    } catch (RejectedExecutionException e) {
+                        // Pool já desligado: a mensagem não saiu, volta para a fila da retomada
+                        recipientRepository.release(recipient.getId(), Status.SENDING, Status.PENDING, LocalDateTime.now());
+                        run.pauseRequested = true;
+                        break;
+                    }
+                }
+
+                for (Future<?> future : inFlight) {
+                    future.get();
+                }
+            }
+
+            if (!run.pauseRequested) {
+                // Todos os envios já voltaram: quem ainda está em SENDING não teve o resultado gravado
+                int orphaned = recipientRepository.moveAll(jobId, Status.SENDING, Status.UNKNOWN, LocalDateTime.now());
+                if (orphaned > 0) {
+                    log.warn("⚠️ Envio em massa #{}: {} mensagens sem resultado gravado ficaram como UNKNOWN",
+                            jobId, orphaned);
+                }
+                job.setStatus(BroadcastJob.Status.COMPLETED);
+                job.setFinishedAt(LocalDateTime.now());
+                jobRepository.save(job);
+                log.info("✅ Envio em massa #{} concluído: {} enviadas, {} falhas",
+                        jobId, run.sent.sum(), run.failed.sum());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Erro no envio em massa #{}", jobId, e);
+        } finally {
+            runs.remove(jobId, run);
+        }
+    }
+
+    private void deliver(BroadcastJob job, BroadcastRecipient recipient, JobRun run) {
+        try {
+            String sid;
+            try {
+                sid = job.getContentSid() != null
+                        ? whatsAppSender.sendTemplate(recipient.getPhone(), job.getContentSid(),
+                                renderVariables(job.getContentVariables(), recipient.getName()))
+                        : whatsAppSender.send(recipient.getPhone(), render(job.getTemplate(), recipient.getName()));
+            } catch (WhatsAppSendException e) {
+                recordFailure(recipient, e, run);
+                return;
+            } catch (RuntimeException e) {
+                // Falha que o sender não classificou (ex.: credencial recusada pelo Twilio): pode ou não ter saído
+                log.error("Erro inesperado ao enviar para {} (job #{})", recipient.getPhone(), job.getId(), e);
+                recipientRepository.finish(recipient.getId(), Status.UNKNOWN,
+                        null, truncate(e.toString()), LocalDateTime.now());
+                run.failed.increment();
+                return;
+            }
+
+            recipientRepository.finish(recipient.getId(), Status.SENT, sid, null, LocalDateTime.now());
+            run.sent.increment();
+
+        } catch (Exception e) {
+            // Erro do banco ao gravar o resultado: fica em SENDING e vira UNKNOWN antes de o job terminar
+            log.error("Erro ao registrar envio para {} (job #{})", recipient.getPhone(), job.getId(), e);
+        }
+    }
+
+    private void recordFailure(BroadcastRecipient recipient, WhatsAppSendException e, JobRun run) {
+        switch (e.getKind()) {
+            case RATE_LIMITED, TRANSIENT -> {
+                // Recusada antes de sair: volta para a fila, se ainda tiver tentativas
+                if (e.getKind() == WhatsAppSendException.Kind.RATE_LIMITED) {
+                    run.rateLimited.increment();
+                }
+                rateLimiter.backOff(rateLimitBackoffMs);
+                boolean retry = recipient.getAttempts() + 1 < maxAttempts;
+                recipientRepository.finish(recipient.getId(), retry ? Status.PENDING : Status.FAILED,
+                        null, truncate(e.getMessage()), LocalDateTime.now());
+                if (!retry) {
+                    run.failed.increment();
+                }
+            }
+            case REJECTED -> {
+                recipientRepository.finish(recipient.getId(), Status.FAILED,
+                        null, truncate(e.getMessage()), LocalDateTime.now());
+                run.failed.increment();
+            }
+            case UNCERTAIN -> {
+                recipientRepository.finish(recipient.getId(), Status.UNKNOWN,
+                        null, truncate(e.getMessage()), LocalDateTime.now());
+                run.failed.increment();
+            }
+        }
+    }
+
+    private static String render(String template, String name) {
+        String firstName = firstName(name);
+        return template.replace(NAME_PLACEHOLDER, firstName.isEmpty() ? "" : " " + firstName);
+    }
+
+    /**
+     * Variáveis do modelo para um destinatário, com {nome} trocado pelo
+     * primeiro nome (sem o espaço que o texto livre usa).
+     */
+    private String renderVariables(String variablesJson, String name) {
+        if (variablesJson == null) {
+            return null;
+        }
+        try {
+            Map<String, String> variables = objectMapper.readValue(variablesJson, VARIABLES);
+            variables.replaceAll((key, value) -> value == null ? null : value.replace(NAME_PLACEHOLDER, firstName(name)));
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("variáveis do modelo inválidas: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private String toJson(Map<String, String> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("contentVariables inválido: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String firstName(String name) {
+        return name != null && !name.isBlank() ? name.trim().split(" ")[0] : "";
+    }
+
+    private static String normalizePhone(String phone) {
+        String trimmed = phone.trim().replace(" ", "");
+        return trimmed.startsWith("whatsapp:") ? trimmed : "whatsapp:" + trimmed;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    /**
+     * Espaça os envios para no máximo N por segundo, somando todos os jobs.
+     * Cada chamada reserva o próximo horário livre e dorme até ele.
+     */
+    private static class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextSlotNanos = System.nanoTime();
+
+        RateLimiter(double perSecond) {
+            this.intervalNanos = (long) (1_000_000_000L / Math.max(0.001, perSecond));
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                nextSlotNanos = Math.max(nextSlotNanos, now);
+                waitNanos = nextSlotNanos - now;
+                nextSlotNanos += intervalNanos;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        synchronized void backOff(long millis) {
+            nextSlotNanos = Math.max(nextSlotNanos, System.nanoTime()) + TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Repassa ao modelo de embeddings real registrando cada chamada no
+ * {@link EmbeddingMetrics}. Os métodos default da interface passam por
+ * {@link #call}, então lotes e textos avulsos são contados uma vez só.
+ */
+public class CountingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final EmbeddingMetrics metrics;
+
+    public CountingEmbeddingModel(EmbeddingModel delegate, EmbeddingMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            EmbeddingResponse response = delegate.call(request);
+            failed = false;
+            return response;
+        } finally {
+            metrics.record(request.getInstructions().size(), System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            float[] embedding = delegate.embed(document);
+            failed = false;
+            return embedding;
+        } finally {
+            metrics.record(1, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
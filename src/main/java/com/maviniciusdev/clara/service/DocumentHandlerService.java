@@ -2,6 +2,7 @@ package com.maviniciusdev.clara.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -15,13 +16,16 @@ import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DocumentHandlerService {
 
-    private final JavaMailSender mailSender;
+    // Resolvido só no primeiro envio: o caminho de email não pesa no boot
+    private final ObjectProvider<JavaMailSender> mailSenderProvider;
+    private final DocumentRoutingService documentRoutingService;
 
     @Value("${documents.upload.path:./uploads}")
     private String uploadPath;
@@ -57,11 +61,17 @@ public class DocumentHandlerService {
                 throw new Exception("Falha ao baixar arquivo");
             }
 
-            // 3. Enviar email para departamento responsável
-            String department = identifyDepartment(mediaType);
-            sendEmailWithAttachment(phoneNumber, profileName, downloadedFile, department);
+            // 3. Descobrir o departamento pelo conteúdo (ou pelo tipo, se não der)
+            Optional<DocumentRoutingService.Route> route = documentRoutingService.route(downloadedFile, mediaType);
+            String department = route.map(DocumentRoutingService.Route::department)
+                    .orElseGet(() -> identifyDepartment(mediaType));
+            String mailbox = route.map(DocumentRoutingService.Route::mailbox).orElse(destinationEmail);
+            String category = route.map(DocumentRoutingService.Route::category).orElse(null);
 
-            // 4. Limpar arquivo temporário
+            // 4. Enviar email para departamento responsável
+            sendEmailWithAttachment(phoneNumber, profileName, downloadedFile, department, category, mailbox);
+
+            // 5. Limpar arquivo temporário
             downloadedFile.delete();
 
             log.info("✅ Documento processado e enviado com sucesso");
@@ -193,14 +203,15 @@ public class DocumentHandlerService {
         return "Administrativo";
     }
 
-    private void sendEmailWithAttachment(String phoneNumber, String profileName,
-                                         File attachment, String department) {
+    private void sendEmailWithAttachment(String phoneNumber, String profileName, File attachment,
+                                         String department, String category, String mailbox) {
         try {
+            JavaMailSender mailSender = mailSenderProvider.getObject();
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setFrom("noreply@sesibahia.com.br");
-            helper.setTo(destinationEmail);
+            helper.setTo(mailbox);
             helper.setSubject("📄 Documento recebido via WhatsApp - " +
                     (profileName != null ? profileName : "Cliente"));
 
@@ -209,6 +220,7 @@ public class DocumentHandlerService {
                             "<p><strong>Cliente:</strong> %s</p>" +
                             "<p><strong>Telefone:</strong> %s</p>" +
                             "<p><strong>Departamento:</strong> %s</p>" +
+                            "<p><strong>Categoria identificada:</strong> %s</p>" +
                             "<p><strong>Data:</strong> %s</p>" +
                             "<hr>" +
                             "<p>Documento em anexo.</p>" +
@@ -216,6 +228,7 @@ public class DocumentHandlerService {
                     profileName != null ? profileName : "Não informado",
                     phoneNumber,
                     department,
+                    category != null ? category : "Não identificada (pelo tipo de arquivo)",
                     LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"))
             );
 
@@ -223,7 +236,7 @@ public class DocumentHandlerService {
             helper.addAttachment(attachment.getName(), attachment);
 
             mailSender.send(message);
-            log.info("✉️ Email enviado para: {}", destinationEmail);
+            log.info("✉️ Email enviado para: {}", mailbox);
 
         } catch (Exception e) {
             log.error("❌ Erro ao enviar email", e);
@@ -1,151 +1,585 @@
 package com.maviniciusdev.clara.service;
 
+import com.maviniciusdev.clara.service.reader.DocumentReaderRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.reader.tika.TikaDocumentReader;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DocumentIndexingService {
 
-    private final VectorStore vectorStore;
-
-    @Value("${documents.sesi.path}")
-    private String documentsPath;
+    private final KnowledgePartitionRegistry partitions;
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentReaderRegistry readerRegistry;
+    private final IndexStatistics indexStatistics;
 
     @Value("${documents.sesi.reindex-on-startup}")
     private boolean reindexOnStartup;
 
+    @Value("${documents.indexing.background:true}")
+    private boolean backgroundOnStartup;
+
+    @Value("${documents.indexing.batch-size:64}")
+    private int batchSize;
+
+    @Value("${documents.indexing.queue-capacity:256}")
+    private int queueCapacity;
+
+    // Marca o fim da fila de chunks
+    private static final Document END_OF_STREAM = new Document("<fim-da-indexação>");
+
+    // IDs dos chunks atualmente no vector store, por caminho do arquivo
+    private final Map<String, List<String>> chunkIdsByPath = new ConcurrentHashMap<>();
+
+    // Situação da indexação de cada partição, exposta no health e em /api/documents/indexing
+    private final Map<String, IndexingState> statesByPartition = new ConcurrentHashMap<>();
+
+    /**
+     * Indexação de uma partição. Também serve de lock da partição: a indexação
+     * completa e as reindexações de arquivo dela não se intercalam (uma
+     * apagaria os chunks que a outra acabou de gravar), sem esperar por outras
+     * unidades.
+     */
+    private static class IndexingState {
+        final AtomicBoolean running = new AtomicBoolean();
+        volatile String state = "idle";
+        volatile LocalDateTime lastStartedAt;
+        volatile LocalDateTime lastFinishedAt;
+        volatile long lastDurationMs;
+        volatile int lastFileCount;
+        volatile int lastChunkCount;
+    }
+
+    /**
+     * Uma execução da indexação completa. Os chunks gravados levam o id da
+     * execução no metadado "index_run"; no fim, as linhas de execuções
+     * anteriores dos arquivos regravados são apagadas.
+     */
+    private static class IndexingRun {
+        final String id = UUID.randomUUID().toString();
+        final Set<String> writtenPaths = ConcurrentHashMap.newKeySet();
+        final Set<String> failedPaths = ConcurrentHashMap.newKeySet();
+        // O consumidor desistiu: leitores param de enfileirar em vez de esperar vaga
+        volatile boolean aborted;
+    }
+
+    /**
+     * Por padrão a indexação roda numa thread própria: a aplicação fica pronta
+     * (readiness) logo, respondendo com o que já está no vector store, enquanto
+     * os documentos são reindexados por trás. Antes, as estatísticas do índice
+     * são semeadas com o que já está gravado.
+     */
     @EventListener(ApplicationReadyEvent.class)
     public void indexDocumentsOnStartup() {
-        if (reindexOnStartup) {
-            log.info("Iniciando indexação de documentos SESI...");
-            indexAllDocuments();
-        } else {
+        if (!reindexOnStartup) {
             log.info("Indexação automática desabilitada. Use o endpoint /api/documents/reindex");
         }
-    }
 
-    public void indexAllDocuments() {
-        try {
-            List<Document> allDocuments = new ArrayList<>();
-
-            File baseDir = new File(documentsPath);
-            if (!baseDir.exists()) {
-                log.warn("Diretório de documentos não encontrado: {}", documentsPath);
-                return;
+        Runnable startupWork = () -> {
+            partitions.all().forEach(indexStatistics::seed);
+            if (reindexOnStartup) {
+                log.info("Iniciando indexação de documentos SESI...");
+                indexAllDocuments();
             }
+        };
 
-            // Buscar todos os arquivos DOCX recursivamente
-            List<File> docxFiles = findDocxFiles(baseDir);
-            log.info("Encontrados {} arquivos DOCX", docxFiles.size());
+        if (!backgroundOnStartup) {
+            startupWork.run();
+            return;
+        }
 
-            if (docxFiles.isEmpty()) {
-                log.warn("Nenhum arquivo DOCX encontrado em: {}", documentsPath);
-                return;
-            }
+        Thread startupIndexing = new Thread(startupWork, "document-indexing-startup");
+        startupIndexing.setDaemon(true);
+        startupIndexing.start();
+    }
+
+    public Map<String, Object> indexingStatus() {
+        Map<String, Object> byPartition = new LinkedHashMap<>();
+        for (KnowledgePartition partition : partitions.all()) {
+            IndexingState state = stateOf(partition);
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", state.state);
+            status.put("documentsRoot", partition.documentsRoot().toString());
+            status.put("table", partition.qualifiedTableName());
+            status.put("lastStartedAt", state.lastStartedAt);
+            status.put("lastFinishedAt", state.lastFinishedAt);
+            status.put("lastDurationMs", state.lastDurationMs);
+            status.put("files", state.lastFileCount);
+            status.put("chunks", state.lastChunkCount);
+            byPartition.put(partition.name(), status);
+        }
+        return byPartition;
+    }
+
+    /**
+     * Indexa todas as partições, uma depois da outra. Devolve false se nenhuma
+     * pôde começar (todas já estavam indexando).
+     */
+    public boolean indexAllDocuments() {
+        boolean started = false;
+        for (KnowledgePartition partition : partitions.all()) {
+            started |= indexPartition(partition);
+        }
+        return started;
+    }
+
+    /**
+     * Indexa todos os arquivos suportados em fluxo: a varredura alimenta os
+     * pools de leitura, os chunks passam por uma fila limitada e são gravados
+     * no vector store em lotes de tamanho fixo. O uso de memória não depende
+     * do tamanho da base e os primeiros chunks ficam disponíveis logo.
+     */
+    public boolean indexPartition(KnowledgePartition partition) {
+        IndexingState state = stateOf(partition);
+        if (!state.running.compareAndSet(false, true)) {
+            log.warn("Indexação da base '{}' já em andamento, pedido ignorado", partition.name());
+            return false;
+        }
 
-            for (File file : docxFiles) {
+        try {
+            synchronized (state) {
+                state.state = "running";
+                state.lastStartedAt = LocalDateTime.now();
+                long start = System.currentTimeMillis();
                 try {
-                    List<Document> docs = loadDocxFile(file);
-                    allDocuments.addAll(docs);
-                    log.info("✓ Carregado: {} ({} chunks)", file.getName(), docs.size());
-                } catch (Exception e) {
-                    log.error("✗ Erro ao carregar arquivo: {}", file.getName(), e);
+                    state.state = runIndexing(partition, state) ? "completed" : "failed";
+                } finally {
+                    state.lastFinishedAt = LocalDateTime.now();
+                    state.lastDurationMs = System.currentTimeMillis() - start;
                 }
             }
+        } finally {
+            state.running.set(false);
+        }
+        return true;
+    }
+
+    private boolean runIndexing(KnowledgePartition partition, IndexingState state) {
+        Path baseDir = partition.documentsRoot();
+        if (!Files.isDirectory(baseDir)) {
+            log.warn("Diretório de documentos não encontrado: {}", baseDir);
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        IndexingRun run = new IndexingRun();
+        BlockingQueue<Document> chunkQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger fileCount = new AtomicInteger();
+
+        Thread scanner = new Thread(
+                () -> scanAndRead(partition, run, chunkQueue, fileCount),
+                "document-indexing-scanner-" + partition.name()
+        );
+        scanner.setDaemon(true);
+        scanner.start();
 
-            if (!allDocuments.isEmpty()) {
-                // Adicionar ao vector store
-                vectorStore.add(allDocuments);
-                log.info("✅ Indexação concluída! {} chunks adicionados ao vector store",
-                        allDocuments.size());
+        try {
+            int committed = commitInBatches(partition, run, chunkQueue);
+            purgeStaleChunks(partition, run);
+            state.lastFileCount = fileCount.get();
+            state.lastChunkCount = committed;
+
+            if (fileCount.get() == 0) {
+                log.warn("Nenhum arquivo suportado encontrado em: {}", baseDir);
+            } else if (committed > 0) {
+                log.info("✅ Indexação da base '{}' concluída! {} arquivos, {} chunks adicionados ao vector store em {} ms",
+                        partition.name(), fileCount.get(), committed, System.currentTimeMillis() - start);
             } else {
                 log.warn("Nenhum documento foi indexado.");
             }
-
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(run, chunkQueue, scanner);
+            log.warn("Indexação interrompida");
         } catch (Exception e) {
+            abort(run, chunkQueue, scanner);
             log.error("Erro na indexação de documentos", e);
         }
+        return false;
+    }
+
+    /**
+     * Consumidor saiu antes do fim: libera leitores parados em putChunk (que
+     * falham e chegam ao Phaser) e descarta o que já estava na fila.
+     */
+    private void abort(IndexingRun run, BlockingQueue<Document> chunkQueue, Thread scanner) {
+        run.aborted = true;
+        scanner.interrupt();
+        chunkQueue.clear();
     }
 
-    private List<File> findDocxFiles(File directory) {
-        List<File> docxFiles = new ArrayList<>();
+    /**
+     * Produtor: percorre o diretório de forma preguiçosa e envia cada arquivo
+     * para o pool do seu formato. Ao terminar todas as leituras, sinaliza o fim
+     * da fila.
+     */
+    private void scanAndRead(KnowledgePartition partition, IndexingRun run,
+                             BlockingQueue<Document> chunkQueue, AtomicInteger fileCount) {
+        Path baseDir = partition.documentsRoot();
+        Phaser pendingReads = new Phaser(1);
+
+        // Uma raiz pode conter a pasta de outra unidade: só entram os arquivos desta partição
+        try (Stream<Path> paths = Files.find(baseDir, Integer.MAX_VALUE,
+                (path, attrs) -> attrs.isRegularFile() && isSupportedFile(path.toFile())
+                        && ownedBy(path.toFile(), partition))) {
+
+            paths.forEach(path -> {
+                if (run.aborted) {
+                    return;
+                }
+                File file = path.toFile();
+                fileCount.incrementAndGet();
+                pendingReads.register();
 
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    docxFiles.addAll(findDocxFiles(file));
-                } else if (isDocxFile(file)) {
-                    docxFiles.add(file);
+                readChunks(file, partition, run.id, chunk -> putChunk(run, chunkQueue, chunk))
+                        .whenComplete((chunks, error) -> {
+                            if (error != null) {
+                                run.failedPaths.add(file.getPath());
+                                log.error("✗ Erro ao carregar arquivo: {}", file.getName(), error);
+                            } else {
+                                log.info("✓ Carregado: {} ({} chunks)", file.getName(), chunks);
+                            }
+                            pendingReads.arriveAndDeregister();
+                        });
+            });
+        } catch (Exception e) {
+            log.error("Erro ao varrer diretório de documentos: {}", baseDir, e);
+        } finally {
+            pendingReads.arriveAndAwaitAdvance();
+            if (!run.aborted) {
+                try {
+                    putChunk(run, chunkQueue, END_OF_STREAM);
+                } catch (IllegalStateException e) {
+                    log.debug("Fim da fila não enviado: {}", e.getMessage());
                 }
             }
         }
-
-        return docxFiles;
     }
 
-    private boolean isDocxFile(File file) {
-        String name = file.getName().toLowerCase();
-        return (name.endsWith(".docx") || name.endsWith(".doc"))
-                && !name.startsWith("~$");
+    /**
+     * Consumidor: grava os chunks em lotes até receber o marcador de fim.
+     */
+    private int commitInBatches(KnowledgePartition partition, IndexingRun run,
+                                BlockingQueue<Document> chunkQueue) throws InterruptedException {
+        List<Document> batch = new ArrayList<>(batchSize);
+        int committed = 0;
+
+        while (true) {
+            Document chunk = chunkQueue.take();
+            if (chunk == END_OF_STREAM) {
+                break;
+            }
+
+            batch.add(chunk);
+            if (batch.size() >= batchSize) {
+                committed += commitBatch(partition, run, batch);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            committed += commitBatch(partition, run, batch);
+        }
+        return committed;
     }
 
-    private List<Document> loadDocxFile(File file) {
+    private int commitBatch(KnowledgePartition partition, IndexingRun run, List<Document> batch) {
+        int size = batch.size();
         try {
-            // Usar TikaDocumentReader do Spring AI (mais compatível)
-            TikaDocumentReader reader = new TikaDocumentReader(
-                    new FileSystemResource(file)
-            );
+            partition.vectorStore().add(batch);
+            for (Document chunk : batch) {
+                Object path = chunk.getMetadata().get("path");
+                if (path == null) {
+                    continue;
+                }
+                // Primeiro lote do arquivo nesta execução: ids e estatísticas recomeçam
+                if (run.writtenPaths.add(path.toString())) {
+                    chunkIdsByPath.put(path.toString(), Collections.synchronizedList(new ArrayList<>()));
+                    indexStatistics.recordRemoved(path.toString());
+                }
+                chunkIdsByPath.get(path.toString()).add(chunk.getId());
+            }
+            indexStatistics.recordAdded(batch);
+            log.debug("Lote de {} chunks gravado", size);
+            return size;
+        } catch (Exception e) {
+            batch.forEach(chunk -> {
+                Object path = chunk.getMetadata().get("path");
+                if (path != null) {
+                    run.failedPaths.add(path.toString());
+                }
+            });
+            log.error("✗ Erro ao gravar lote de {} chunks", size, e);
+            return 0;
+        } finally {
+            batch.clear();
+        }
+    }
 
-            List<Document> documents = reader.get();
+    /**
+     * Apaga as linhas deixadas por execuções anteriores: versões antigas dos
+     * arquivos regravados agora, arquivos que não existem mais e arquivos de
+     * uma subpasta que passou a ser outra partição. Arquivos com falha de
+     * leitura ou gravação ficam com o que já tinham.
+     */
+    private void purgeStaleChunks(KnowledgePartition partition, IndexingRun run) {
+        List<String> staleIds = new ArrayList<>();
+        Set<String> stalePaths = new HashSet<>();
+        Set<String> movedPaths = new HashSet<>();
+        try {
+            jdbcTemplate.query(
+                    "SELECT id::text AS id, metadata->>'path' AS path FROM " + partition.qualifiedTableName()
+                            + " WHERE metadata->>'index_run' IS DISTINCT FROM ?",
+                    rs -> {
+                        String path = rs.getString("path");
+                        if (isStale(path, run)) {
+                            staleIds.add(rs.getString("id"));
+                            stalePaths.add(path);
+                        } else if (movedToAnotherPartition(path, partition)) {
+                            staleIds.add(rs.getString("id"));
+                            movedPaths.add(path);
+                        }
+                    },
+                    run.id);
+        } catch (Exception e) {
+            log.warn("Não foi possível procurar chunks antigos da base '{}': {}", partition.name(), e.getMessage());
+            return;
+        }
+        if (staleIds.isEmpty()) {
+            return;
+        }
 
-            if (documents.isEmpty()) {
-                log.warn("Nenhum conteúdo extraído de: {}", file.getName());
-                return Collections.emptyList();
+        partition.vectorStore().delete(staleIds);
+        // Os ids em memória de um arquivo que mudou de partição já são os da nova dona
+        for (String path : stalePaths) {
+            if (!run.writtenPaths.contains(path)) {
+                chunkIdsByPath.remove(path);
+                indexStatistics.recordRemoved(path);
             }
+        }
+        log.info("🧹 {} chunks antigos removidos da base '{}' ({} arquivos, {} agora em outra base)",
+                staleIds.size(), partition.name(), stalePaths.size(), movedPaths.size());
+    }
 
-            // Adicionar metadados
-            String category = detectCategory(file);
-            for (Document doc : documents) {
-                Map<String, Object> metadata = new HashMap<>(doc.getMetadata());
-                metadata.put("source", file.getName());
-                metadata.put("category", category);
-                metadata.put("path", file.getPath());
-                metadata.put("indexed_at", LocalDateTime.now().toString());
-
-                // Atualizar metadados do documento
-                doc.getMetadata().putAll(metadata);
-            }
+    private boolean isStale(String path, IndexingRun run) {
+        if (path == null || run.failedPaths.contains(path)) {
+            return false;
+        }
+        // Linhas antigas podem ter o caminho relativo: compara pelo absoluto
+        String absolute = Paths.get(path).toAbsolutePath().normalize().toString();
+        return run.writtenPaths.contains(path)
+                || run.writtenPaths.contains(absolute)
+                || !Files.exists(Paths.get(absolute));
+    }
 
-            // Dividir em chunks menores
-            TokenTextSplitter splitter = new TokenTextSplitter(500, 100, 5, 10000, true);
-            List<Document> allChunks = new ArrayList<>();
+    /**
+     * Arquivo que ainda existe, mas numa subpasta que virou a raiz de outra
+     * partição: o scan desta partição já o ignora, só falta limpar a tabela.
+     */
+    private boolean movedToAnotherPartition(String path, KnowledgePartition partition) {
+        if (path == null) {
+            return false;
+        }
+        return partitions.forFile(new File(path))
+                .map(owner -> !owner.name().equals(partition.name()))
+                .orElse(false);
+    }
 
-            for (Document doc : documents) {
-                allChunks.addAll(splitter.split(doc));
+    /**
+     * Espera vaga na fila em fatias curtas, para que um leitor bloqueado
+     * perceba quando o consumidor abortou e a fila não vai mais andar.
+     */
+    private void putChunk(IndexingRun run, BlockingQueue<Document> chunkQueue, Document chunk) {
+        try {
+            while (!chunkQueue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (run.aborted) {
+                    throw new IllegalStateException("Indexação abortada");
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Indexação interrompida", e);
+        }
+    }
+
+    /**
+     * Reindexa um único arquivo. Os chunks novos são gravados antes de remover
+     * os antigos, então as buscas continuam respondendo com a versão anterior
+     * até a nova estar no vector store.
+     */
+    public void reindexFile(File file) {
+        Optional<KnowledgePartition> owner = partitions.forFile(file);
+        if (!file.isFile() || !isSupportedFile(file) || owner.isEmpty()) {
+            return;
+        }
+
+        KnowledgePartition partition = owner.get();
+        synchronized (stateOf(partition)) {
+            reindexFile(file, partition);
+        }
+    }
+
+    private void reindexFile(File file, KnowledgePartition partition) {
+        long start = System.currentTimeMillis();
+        List<Document> newChunks;
+        try {
+            newChunks = loadFile(file, partition, UUID.randomUUID().toString()).join();
+        } catch (Exception e) {
+            log.error("Erro ao reindexar arquivo: {}", file.getName(), e);
+            return;
+        }
+        if (newChunks.isEmpty()) {
+            log.warn("Reindexação ignorada, nenhum chunk extraído de: {}", file.getName());
+            return;
+        }
+
+        List<String> oldIds = findIndexedChunkIds(file, partition);
+
+        partition.vectorStore().add(newChunks);
+        chunkIdsByPath.put(file.getPath(), Collections.synchronizedList(chunkIds(newChunks)));
+
+        if (!oldIds.isEmpty()) {
+            partition.vectorStore().delete(oldIds);
+        }
+        indexStatistics.recordReplaced(file.getPath(), newChunks);
+
+        log.info("🔄 Reindexado em '{}': {} ({} chunks novos, {} removidos) em {} ms",
+                partition.name(), file.getName(), newChunks.size(), oldIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Remove do vector store os chunks de um arquivo apagado.
+     */
+    public void removeFile(File file) {
+        Optional<KnowledgePartition> owner = partitions.forFile(file);
+        if (!isSupportedFile(file) || owner.isEmpty()) {
+            return;
+        }
+
+        KnowledgePartition partition = owner.get();
+        synchronized (stateOf(partition)) {
+            removeFile(file, partition);
+        }
+    }
+
+    private void removeFile(File file, KnowledgePartition partition) {
+        List<String> oldIds = findIndexedChunkIds(file, partition);
+        chunkIdsByPath.remove(file.getPath());
+        indexStatistics.recordRemoved(file.getPath());
+
+        if (!oldIds.isEmpty()) {
+            partition.vectorStore().delete(oldIds);
+            log.info("🗑️ Removido do índice: {} ({} chunks)", file.getName(), oldIds.size());
+        }
+    }
+
+    public boolean isIndexable(File file) {
+        return isSupportedFile(file) && partitions.forFile(file).isPresent();
+    }
 
-            return allChunks;
+    private IndexingState stateOf(KnowledgePartition partition) {
+        return statesByPartition.computeIfAbsent(partition.name(), name -> new IndexingState());
+    }
+
+    private boolean ownedBy(File file, KnowledgePartition partition) {
+        return partitions.forFile(file).map(owner -> owner.name().equals(partition.name())).orElse(false);
+    }
 
+    /**
+     * Todos os chunks gravados do arquivo: o que está na tabela pelo metadado
+     * "path" (inclusive de execuções anteriores) somado aos ids conhecidos em
+     * memória.
+     */
+    private List<String> findIndexedChunkIds(File file, KnowledgePartition partition) {
+        Set<String> ids = new LinkedHashSet<>();
+        try {
+            ids.addAll(jdbcTemplate.queryForList(
+                    "SELECT id::text FROM " + partition.qualifiedTableName() + " WHERE metadata->>'path' = ?",
+                    String.class,
+                    file.getPath()
+            ));
         } catch (Exception e) {
-            log.error("Erro ao processar arquivo: {}", file.getName(), e);
-            return Collections.emptyList();
+            log.warn("Não foi possível consultar chunks antigos de {}: {}", file.getName(), e.getMessage());
         }
+
+        List<String> known = chunkIdsByPath.get(file.getPath());
+        if (known != null) {
+            synchronized (known) {
+                ids.addAll(known);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private List<String> chunkIds(List<Document> chunks) {
+        List<String> ids = new ArrayList<>(chunks.size());
+        for (Document chunk : chunks) {
+            ids.add(chunk.getId());
+        }
+        return ids;
+    }
+
+    private boolean isSupportedFile(File file) {
+        return readerRegistry.isSupported(file);
+    }
+
+    /**
+     * Lê o arquivo no pool do seu formato e divide em chunks à medida que as
+     * páginas/blocos chegam, sem guardar o texto bruto do arquivo inteiro.
+     * O futuro completa com o número de chunks entregues.
+     */
+    private CompletableFuture<Integer> readChunks(File file, KnowledgePartition partition, String runId,
+                                                  Consumer<Document> chunkSink) {
+        String category = detectCategory(file);
+        String indexedAt = LocalDateTime.now().toString();
+        TokenTextSplitter splitter = new TokenTextSplitter(500, 100, 5, 10000, true);
+        AtomicInteger produced = new AtomicInteger();
+
+        return readerRegistry.read(file, doc -> {
+            // Adicionar metadados
+            doc.getMetadata().put("source", file.getName());
+            doc.getMetadata().put("category", category);
+            doc.getMetadata().put("path", file.getPath());
+            doc.getMetadata().put("partition", partition.name());
+            doc.getMetadata().put("index_run", runId);
+            doc.getMetadata().put("indexed_at", indexedAt);
+
+            // Dividir em chunks menores
+            for (Document chunk : splitter.split(doc)) {
+                chunkSink.accept(chunk);
+                produced.incrementAndGet();
+            }
+        }).thenApply(done -> {
+            if (produced.get() == 0) {
+                log.warn("Nenhum conteúdo extraído de: {}", file.getName());
+            }
+            return produced.get();
+        });
+    }
+
+    private CompletableFuture<List<Document>> loadFile(File file, KnowledgePartition partition, String runId) {
+        List<Document> chunks = new ArrayList<>();
+        return readChunks(file, partition, runId, chunks::add).thenApply(count -> chunks);
     }
 
     private String detectCategory(File file) {
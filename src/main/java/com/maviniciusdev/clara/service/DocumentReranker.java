@@ -0,0 +1,17 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+
+/**
+ * Segundo estágio da recuperação: reordena os candidatos da busca vetorial
+ * e devolve só os melhores para o prompt.
+ *
+ * A implementação padrão é {@link LexicalOverlapReranker}; para trocar
+ * (ex.: um cross-encoder local), basta registrar outro bean com @Primary.
+ */
+public interface DocumentReranker {
+
+    List<Document> rerank(String query, List<Document> candidates, int topN);
+}
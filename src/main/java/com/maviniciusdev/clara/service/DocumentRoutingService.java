@@ -0,0 +1,307 @@
+package com.maviniciusdev.clara.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decide para onde vai um documento recebido pelo WhatsApp olhando o
+ * conteúdo, não só o tipo MIME.
+ *
+ * O texto é extraído num pool limitado e com teto: com o pool e a fila
+ * cheios o documento vai direto para a regra por MIME (a thread de mídia
+ * nunca extrai por conta própria). PDFs só até
+ * {@code max-pages} páginas (PDFBox com cache em arquivo), outros formatos
+ * via Tika até {@code max-chars} caracteres, e arquivos acima de
+ * {@code max-bytes} nem são abertos. O texto é pontuado contra o vocabulário
+ * das categorias da base (PGR, PCMSO, EXAMES...) e a categoria vencedora
+ * define departamento e caixa de email. Sem texto ou sem pontuação
+ * suficiente, o chamador volta para a regra por MIME.
+ *
+ * PDFBox e Tika não respondem a interrupção: uma extração que estoura o
+ * prazo continua ocupando a thread do pool até terminar. Por isso os tetos de
+ * páginas/caracteres/bytes, e por isso o pool é pequeno e recusa em vez de
+ * crescer.
+ */
+@Slf4j
+@Service
+public class DocumentRoutingService {
+
+    /**
+     * Destino escolhido para o documento.
+     */
+    public record Route(String category, String department, String mailbox, int score) {}
+
+    private record Category(String name, String department, List<String> terms) {}
+
+    private static final List<Category> CATEGORIES = List.of(
+            new Category("PGR", "Segurança do Trabalho", List.of(
+                    "pgr", "programa de gerenciamento de riscos", "gerenciamento de riscos",
+                    "inventario de riscos", "plano de acao", "nr-01", "nr 01", "nr-1", "riscos ocupacionais",
+                    "ltcat", "laudo tecnico")),
+            new Category("PCMSO", "Saúde Ocupacional", List.of(
+                    "pcmso", "programa de controle medico", "controle medico de saude ocupacional",
+                    "nr-07", "nr 07", "nr-7", "medico coordenador", "relatorio analitico")),
+            new Category("EXAMES", "Exames Ocupacionais", List.of(
+                    "aso", "atestado de saude ocupacional", "exame admissional", "admissional",
+                    "demissional", "periodico", "retorno ao trabalho", "mudanca de funcao", "mudanca de riscos",
+                    "audiometria", "espirometria", "hemograma", "acuidade visual", "apto", "inapto")),
+            new Category("PROCESSOS", "Administrativo", List.of(
+                    "contrato", "proposta", "ordem de servico", "nota fiscal", "boleto",
+                    "cnpj", "razao social", "ficha cadastral", "autorizacao"))
+    );
+
+    // Só para as caixas/departamentos por categoria (documents.routing.mailbox.<CATEGORIA>)
+    private final Environment environment;
+    private final ThreadPoolExecutor executor;
+
+    private final int maxPages;
+    private final int maxChars;
+    private final long maxBytes;
+    private final long timeoutMs;
+    private final int minScore;
+    private final boolean extractImages;
+    private final String defaultMailbox;
+
+    // Tika só é montado no primeiro documento que precisar dele
+    private volatile AutoDetectParser tikaParser;
+
+    private final LongAdder classified = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder extractedChars = new LongAdder();
+    private final Map<String, LongAdder> byCategory = new ConcurrentHashMap<>();
+
+    public DocumentRoutingService(Environment environment,
+                                  @Value("${documents.routing.max-pages:5}") int maxPages,
+                                  @Value("${documents.routing.max-chars:20000}") int maxChars,
+                                  @Value("${documents.routing.max-bytes:10485760}") long maxBytes,
+                                  @Value("${documents.routing.timeout-ms:15000}") long timeoutMs,
+                                  @Value("${documents.routing.min-score:2}") int minScore,
+                                  @Value("${documents.routing.extract-images:false}") boolean extractImages,
+                                  @Value("${sesi.email.destination:tecnico@sesibahia.com.br}") String defaultMailbox,
+                                  @Value("${documents.routing.threads:2}") int threads,
+                                  @Value("${documents.routing.queue-capacity:16}") int queueCapacity) {
+        this.environment = environment;
+        this.maxPages = maxPages;
+        this.maxChars = maxChars;
+        this.maxBytes = maxBytes;
+        this.timeoutMs = timeoutMs;
+        this.minScore = minScore;
+        this.extractImages = extractImages;
+        this.defaultMailbox = defaultMailbox;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                Math.max(1, threads), Math.max(1, threads),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "document-routing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Classifica o arquivo pelo conteúdo. Vazio quando não dá para decidir
+     * (sem texto, pontuação baixa, prazo estourado ou erro na extração).
+     */
+    public Optional<Route> route(File file, String mediaType) {
+        long start = System.nanoTime();
+        try {
+            if (file.length() > maxBytes || (isImage(mediaType) && !extractImages)) {
+                return fallback(file, "não extraído");
+            }
+
+            Future<String> extraction;
+            try {
+                extraction = executor.submit(() -> extractText(file, mediaType));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                return fallback(file, "extração ocupada");
+            }
+
+            String text;
+            try {
+                text = extraction.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Só libera a espera: PDFBox/Tika terminam a leitura na thread do pool
+                extraction.cancel(true);
+                timeouts.increment();
+                return fallback(file, "prazo de extração estourado");
+            }
+            extractedChars.add(text.length());
+
+            Optional<Route> route = classify(text);
+            if (route.isEmpty()) {
+                return fallback(file, "conteúdo sem categoria clara");
+            }
+
+            classified.increment();
+            byCategory.computeIfAbsent(route.get().category(), c -> new LongAdder()).increment();
+            log.info("🧭 {} classificado como {} (pontuação {}) em {} ms",
+                    file.getName(), route.get().category(), route.get().score(), (System.nanoTime() - start) / 1_000_000);
+            return route;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Falha ao classificar {}: {}", file.getName(), e.getMessage());
+            return Optional.empty();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            nanos.add(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long total = classified.sum() + fallbacks.sum() + failures.sum();
+        Map<String, Long> categories = new TreeMap<>();
+        byCategory.forEach((category, count) -> categories.put(category, count.sum()));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("files", total);
+        values.put("classified", classified.sum());
+        values.put("fallbacks", fallbacks.sum());
+        values.put("timeouts", timeouts.sum());
+        values.put("rejected", rejected.sum());
+        values.put("failures", failures.sum());
+        values.put("byCategory", categories);
+        values.put("avgMillis", total > 0 ? nanos.sum() / 1_000_000.0 / total : 0);
+        values.put("maxMillis", maxNanos.get() / 1_000_000.0);
+        values.put("avgExtractedChars", total > 0 ? (double) extractedChars.sum() / total : 0);
+        values.put("activeThreads", executor.getActiveCount());
+        values.put("queued", executor.getQueue().size());
+        return values;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Pontua o texto contra o vocabulário de cada categoria: cada ocorrência
+     * vale o número de palavras do termo, então frases específicas pesam mais
+     * que siglas soltas.
+     */
+    Optional<Route> classify(String text) {
+        String normalized = " " + normalize(text) + " ";
+
+        Category best = null;
+        int bestScore = 0;
+        for (Category category : CATEGORIES) {
+            int score = 0;
+            for (String term : category.terms()) {
+                int weight = term.split(" ").length;
+                score += occurrences(normalized, " " + term + " ") * weight;
+            }
+            if (score > bestScore) {
+                best = category;
+                bestScore = score;
+            }
+        }
+
+        if (best == null || bestScore < minScore) {
+            return Optional.empty();
+        }
+
+        String mailbox = environment.getProperty("documents.routing.mailbox." + best.name(), defaultMailbox);
+        String department = environment.getProperty("documents.routing.department." + best.name(), best.department());
+        return Optional.of(new Route(best.name(), department, mailbox, bestScore));
+    }
+
+    String extractText(File file, String mediaType) throws Exception {
+        if (mediaType != null && mediaType.contains("pdf")) {
+            try (PDDocument pdf = Loader.loadPDF(file, IOUtils.createTempFileOnlyStreamCache())) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setStartPage(1);
+                stripper.setEndPage(Math.min(maxPages, pdf.getNumberOfPages()));
+                String text = stripper.getText(pdf);
+                return text.length() > maxChars ? text.substring(0, maxChars) : text;
+            }
+        }
+
+        // Tika em fluxo: para de escrever ao atingir o limite de caracteres
+        BodyContentHandler handler = new BodyContentHandler(maxChars);
+        Metadata metadata = new Metadata();
+        try (TikaInputStream in = TikaInputStream.get(file.toPath(), metadata)) {
+            tika().parse(in, handler, metadata, new ParseContext());
+        } catch (SAXException e) {
+            if (!WriteLimitReachedException.isWriteLimitReached(e)) {
+                throw e;
+            }
+        }
+        return handler.toString();
+    }
+
+    private AutoDetectParser tika() {
+        AutoDetectParser parser = tikaParser;
+        if (parser == null) {
+            synchronized (this) {
+                if (tikaParser == null) {
+                    tikaParser = new AutoDetectParser();
+                }
+                parser = tikaParser;
+            }
+        }
+        return parser;
+    }
+
+    private Optional<Route> fallback(File file, String reason) {
+        fallbacks.increment();
+        log.debug("Roteamento de {} pelo tipo de arquivo: {}", file.getName(), reason);
+        return Optional.empty();
+    }
+
+    private static boolean isImage(String mediaType) {
+        return mediaType != null && mediaType.startsWith("image");
+    }
+
+    private static String normalize(String text) {
+        String withoutAccents = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return withoutAccents.replaceAll("[^a-z0-9\\-]+", " ");
+    }
+
+    private static int occurrences(String text, String term) {
+        int count = 0;
+        int from = 0;
+        while ((from = text.indexOf(term, from)) >= 0) {
+            count++;
+            from += term.length() - 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,251 @@
+package com.maviniciusdev.clara.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Observa as pastas de documentos de todas as partições e reindexa apenas o
+ * arquivo alterado, na tabela da partição dona dele.
+ *
+ * Usa o WatchService do sistema; se ele não estiver disponível (ou se o modo
+ * "poll" for configurado), compara datas de modificação periodicamente.
+ * Rajadas de eventos do mesmo arquivo são agrupadas por um debounce.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentWatcherService {
+
+    private final DocumentIndexingService documentIndexingService;
+    private final KnowledgePartitionRegistry partitions;
+
+    @Value("${documents.sesi.watch.enabled:true}")
+    private boolean watchEnabled;
+
+    @Value("${documents.sesi.watch.mode:native}")
+    private String watchMode;
+
+    @Value("${documents.sesi.watch.debounce-ms:1500}")
+    private long debounceMs;
+
+    @Value("${documents.sesi.watch.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    private final Map<Path, ScheduledFuture<?>> pendingChanges = new ConcurrentHashMap<>();
+    private final Map<Path, Long> lastSnapshot = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!watchEnabled) {
+            log.info("Monitoramento de documentos desabilitado");
+            return;
+        }
+
+        List<Path> roots = partitions.all().stream()
+                .map(KnowledgePartition::documentsRoot)
+                .filter(root -> {
+                    if (!Files.isDirectory(root)) {
+                        log.warn("Diretório de documentos não encontrado, não será monitorado: {}", root);
+                        return false;
+                    }
+                    return true;
+                })
+                .distinct()
+                .toList();
+        if (roots.isEmpty()) {
+            log.warn("Monitoramento não iniciado, nenhum diretório de documentos encontrado");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "document-watcher-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (!"poll".equalsIgnoreCase(watchMode) && startNativeWatch(roots)) {
+            log.info("👀 Monitorando {} com WatchService (debounce {} ms)", roots, debounceMs);
+            return;
+        }
+
+        startPolling(roots);
+        log.info("👀 Monitorando {} por polling a cada {} ms (debounce {} ms)", roots, pollIntervalMs, debounceMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Erro ao fechar WatchService", e);
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private boolean startNativeWatch(List<Path> roots) {
+        try {
+            watchService = roots.get(0).getFileSystem().newWatchService();
+            for (Path root : roots) {
+                registerRecursively(root);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("WatchService indisponível ({}), usando polling", e.getMessage());
+            return false;
+        }
+
+        watchThread = new Thread(this::watchLoop, "document-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return true;
+    }
+
+    private void watchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    log.warn("Eventos do WatchService perdidos (overflow), reindexe manualmente se necessário");
+                    continue;
+                }
+
+                Path changed = dir.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                    try {
+                        registerRecursively(changed);
+                        try (Stream<Path> files = Files.walk(changed)) {
+                            files.filter(Files::isRegularFile).forEach(this::scheduleChange);
+                        }
+                    } catch (IOException e) {
+                        log.warn("Falha ao monitorar novo diretório {}: {}", changed, e.getMessage());
+                    }
+                    continue;
+                }
+
+                scheduleChange(changed);
+            }
+
+            if (!key.reset()) {
+                log.debug("Diretório não é mais monitorado: {}", dir);
+            }
+        }
+    }
+
+    private void registerRecursively(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void startPolling(List<Path> roots) {
+        lastSnapshot.putAll(snapshot(roots));
+        scheduler.scheduleWithFixedDelay(() -> {
+            Map<Path, Long> current = snapshot(roots);
+
+            current.forEach((path, modified) -> {
+                if (!modified.equals(lastSnapshot.get(path))) {
+                    scheduleChange(path);
+                }
+            });
+            lastSnapshot.keySet().stream()
+                    .filter(path -> !current.containsKey(path))
+                    .forEach(this::scheduleChange);
+
+            lastSnapshot.clear();
+            lastSnapshot.putAll(current);
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Map<Path, Long> snapshot(List<Path> roots) {
+        Map<Path, Long> snapshot = new HashMap<>();
+        for (Path root : roots) {
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(Files::isRegularFile).forEach(path -> {
+                    try {
+                        snapshot.put(path, Files.getLastModifiedTime(path).toMillis());
+                    } catch (IOException e) {
+                        // Arquivo removido durante a varredura
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Falha ao varrer {}: {}", root, e.getMessage());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Agenda o processamento do arquivo, reiniciando o prazo se já houver um
+     * evento pendente para ele.
+     */
+    private void scheduleChange(Path path) {
+        if (!documentIndexingService.isIndexable(path.toFile())) {
+            return;
+        }
+
+        pendingChanges.compute(path, (p, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+            ScheduledFuture<?> future = scheduler.schedule(
+                    () -> applyChange(p, self.get()), debounceMs, TimeUnit.MILLISECONDS);
+            self.set(future);
+            return future;
+        });
+    }
+
+    private void applyChange(Path path, ScheduledFuture<?> self) {
+        // Só sai do mapa se ainda for o agendamento atual: um evento que chegou
+        // durante esta execução já agendou o próximo e ele não pode se perder
+        pendingChanges.remove(path, self);
+
+        try {
+            if (Files.exists(path)) {
+                documentIndexingService.reindexFile(path.toFile());
+            } else {
+                documentIndexingService.removeFile(path.toFile());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao aplicar alteração em {}", path, e);
+        }
+    }
+}
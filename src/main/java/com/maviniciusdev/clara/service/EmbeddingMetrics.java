@@ -0,0 +1,39 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores das chamadas ao modelo de embeddings (indexação e consultas).
+ */
+@Component
+public class EmbeddingMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder inputs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    public void record(int inputCount, long elapsedNanos, boolean failed) {
+        calls.increment();
+        inputs.add(inputCount);
+        nanos.add(elapsedNanos);
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = calls.sum();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("calls", count);
+        values.put("inputs", inputs.sum());
+        values.put("failures", failures.sum());
+        values.put("avgInputsPerCall", count > 0 ? (double) inputs.sum() / count : 0);
+        values.put("avgMillis", count > 0 ? nanos.sum() / 1_000_000.0 / count : 0);
+        return values;
+    }
+}
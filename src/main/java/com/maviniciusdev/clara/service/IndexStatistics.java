@@ -0,0 +1,195 @@
+package com.maviniciusdev.clara.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Agregados do conteúdo indexado, mantidos por arquivo à medida que os chunks
+ * são gravados ou removidos. A tabela do pgvector só é lida uma vez, no
+ * startup, para semear os números; depois disso nenhuma consulta ao painel
+ * varre a tabela.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KnowledgePartitionRegistry partitions;
+
+    private final ConcurrentMap<String, FileStats> statsByPath = new ConcurrentHashMap<>();
+
+    /**
+     * Chunks e caracteres gravados de um arquivo, com o indexed_at mais recente.
+     */
+    private record FileStats(String partition, String source, String category,
+                             long chunks, long characters, String lastIndexedAt) {
+
+        FileStats plus(FileStats other) {
+            String latest = lastIndexedAt == null
+                    || (other.lastIndexedAt != null && other.lastIndexedAt.compareTo(lastIndexedAt) > 0)
+                    ? other.lastIndexedAt : lastIndexedAt;
+            return new FileStats(other.partition, other.source, other.category,
+                    chunks + other.chunks, characters + other.characters, latest);
+        }
+    }
+
+    /**
+     * Carrega os agregados do que já está na tabela da partição (uma agregação
+     * por arquivo, feita uma única vez).
+     */
+    public void seed(KnowledgePartition partition) {
+        try {
+            long start = System.currentTimeMillis();
+            jdbcTemplate.query("""
+                    SELECT metadata->>'path' AS path,
+                           max(metadata->>'source') AS source,
+                           max(metadata->>'category') AS category,
+                           count(*) AS chunks,
+                           sum(length(content)) AS characters,
+                           max(metadata->>'indexed_at') AS indexed_at
+                    FROM %s
+                    GROUP BY metadata->>'path'
+                    """.formatted(partition.qualifiedTableName()),
+                    rs -> {
+                        String path = rs.getString("path");
+                        statsByPath.merge(path != null ? path : "(sem caminho)",
+                                new FileStats(partition.name(), rs.getString("source"), rs.getString("category"),
+                                        rs.getLong("chunks"), rs.getLong("characters"), rs.getString("indexed_at")),
+                                FileStats::plus);
+                    });
+            log.info("Estatísticas do índice '{}' carregadas em {} ms",
+                    partition.name(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Não foi possível carregar as estatísticas do índice '{}': {}", partition.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * Chunks recém-gravados no vector store.
+     */
+    public void recordAdded(List<Document> chunks) {
+        for (Map.Entry<String, FileStats> entry : summarize(chunks).entrySet()) {
+            statsByPath.merge(entry.getKey(), entry.getValue(), FileStats::plus);
+        }
+    }
+
+    /**
+     * Os chunks de um arquivo foram trocados pelos novos. Conta só os novos,
+     * assumindo que o reindexFile apagou todos os antigos: ele busca os ids
+     * pelo metadado "path" na tabela, não só pelos conhecidos em memória.
+     * Linhas que ainda assim sobrarem (ex.: falha no delete) ficam fora da
+     * contagem, e o painel fica abaixo da tabela até a próxima indexação
+     * completa, que as apaga.
+     */
+    public void recordReplaced(String path, List<Document> chunks) {
+        FileStats replacement = summarize(chunks).get(path);
+        if (replacement != null) {
+            statsByPath.put(path, replacement);
+        } else {
+            statsByPath.remove(path);
+        }
+    }
+
+    public void recordRemoved(String path) {
+        statsByPath.remove(path);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Long> chunksByPartition = new TreeMap<>();
+        Map<String, Long> chunksByCategory = new TreeMap<>();
+        Map<String, Long> chunksBySource = new TreeMap<>();
+        Map<String, String> lastIndexedByFile = new TreeMap<>();
+        long chunks = 0;
+        long characters = 0;
+
+        for (Map.Entry<String, FileStats> entry : statsByPath.entrySet()) {
+            FileStats stats = entry.getValue();
+            chunksByPartition.merge(String.valueOf(stats.partition()), stats.chunks(), Long::sum);
+            chunksByCategory.merge(String.valueOf(stats.category()), stats.chunks(), Long::sum);
+            chunksBySource.merge(String.valueOf(stats.source()), stats.chunks(), Long::sum);
+            lastIndexedByFile.put(entry.getKey(), stats.lastIndexedAt());
+            chunks += stats.chunks();
+            characters += stats.characters();
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("files", statsByPath.size());
+        values.put("chunks", chunks);
+        values.put("avgChunkChars", chunks > 0 ? (double) characters / chunks : 0);
+        values.put("chunksByPartition", chunksByPartition);
+        values.put("chunksByCategory", chunksByCategory);
+        values.put("chunksBySource", chunksBySource);
+        values.put("lastIndexedAtByFile", lastIndexedByFile);
+        return values;
+    }
+
+    /**
+     * Tamanho em disco da tabela e dos índices (HNSW incluído) de cada
+     * partição, pelo catálogo do Postgres: não lê as tabelas.
+     */
+    public Map<String, Object> storageSizes() {
+        Map<String, Object> byPartition = new LinkedHashMap<>();
+        for (KnowledgePartition partition : partitions.all()) {
+            byPartition.put(partition.name(), storageSizes(partition.qualifiedTableName()));
+        }
+        return byPartition;
+    }
+
+    private Map<String, Object> storageSizes(String qualifiedTableName) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("table", qualifiedTableName);
+        try {
+            values.put("tableBytes", jdbcTemplate.queryForObject(
+                    "SELECT pg_relation_size(to_regclass(?))", Long.class, qualifiedTableName));
+
+            Map<String, Object> indexes = new LinkedHashMap<>();
+            jdbcTemplate.query("""
+                    SELECT c.relname AS name, am.amname AS method, pg_relation_size(c.oid) AS bytes
+                    FROM pg_index i
+                    JOIN pg_class c ON c.oid = i.indexrelid
+                    JOIN pg_am am ON am.oid = c.relam
+                    WHERE i.indrelid = to_regclass(?)
+                    """,
+                    rs -> {
+                        indexes.put(rs.getString("name"), Map.of(
+                                "method", rs.getString("method"),
+                                "bytes", rs.getLong("bytes")));
+                    },
+                    qualifiedTableName);
+            values.put("indexes", indexes);
+        } catch (Exception e) {
+            log.warn("Não foi possível consultar o tamanho do índice: {}", e.getMessage());
+            values.put("error", e.getMessage());
+        }
+        return values;
+    }
+
+    private static Map<String, FileStats> summarize(List<Document> chunks) {
+        Map<String, FileStats> byPath = new HashMap<>();
+        for (Document chunk : chunks) {
+            Map<String, Object> metadata = chunk.getMetadata();
+            Object path = metadata.get("path");
+            if (path == null) {
+                continue;
+            }
+
+            FileStats stats = new FileStats(
+                    String.valueOf(metadata.get("partition")),
+                    String.valueOf(metadata.get("source")),
+                    String.valueOf(metadata.get("category")),
+                    1,
+                    chunk.getContent() != null ? chunk.getContent().length() : 0,
+                    metadata.get("indexed_at") != null ? metadata.get("indexed_at").toString() : null);
+            byPath.merge(path.toString(), stats, FileStats::plus);
+        }
+        return byPath;
+    }
+}
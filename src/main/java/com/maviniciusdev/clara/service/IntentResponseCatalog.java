@@ -0,0 +1,153 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Tabela das respostas prontas (saudação, departamentos, menu, agradecimento...).
+ *
+ * As intenções vêm de um JSON configurável ({@code whatsapp.intents.location});
+ * cada resposta é dividida em partes de mensagem uma única vez e reaproveitada.
+ * Só a saudação e o primeiro nome variam, e são trocados na parte já pronta.
+ * Se o JSON for um arquivo em disco, alterações são recarregadas sem redeploy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IntentResponseCatalog {
+
+    private static final String GREETING_PLACEHOLDER = "{saudacao}";
+    private static final String NAME_PLACEHOLDER = "{nome}";
+
+    private final ObjectMapper objectMapper;
+    private final MessageSplitter messageSplitter;
+
+    @Value("${whatsapp.intents.location:classpath:intents/respostas.json}")
+    private Resource location;
+
+    @Value("${whatsapp.intents.reload-check-ms:5000}")
+    private long reloadCheckMs;
+
+    private volatile List<Intent> intents = List.of();
+    private volatile long loadedLastModified;
+    private volatile long lastReloadCheck;
+
+    record IntentDefinition(String name, String pattern, Integer maxWords, String response) {}
+
+    record IntentFile(List<IntentDefinition> intents) {}
+
+    /**
+     * Intenção compilada: regex pronta e partes de mensagem por saudação.
+     */
+    private class Intent {
+
+        final String name;
+        final Pattern pattern;
+        final int maxWords;
+        final String response;
+        final Map<String, List<String>> partsByGreeting = new ConcurrentHashMap<>();
+
+        Intent(IntentDefinition definition) {
+            this.name = definition.name();
+            this.pattern = Pattern.compile(definition.pattern());
+            this.maxWords = definition.maxWords() != null ? definition.maxWords() : Integer.MAX_VALUE;
+            this.response = definition.response();
+        }
+
+        boolean matches(String normalizedMessage) {
+            return pattern.matcher(normalizedMessage).find()
+                    && (maxWords == Integer.MAX_VALUE || normalizedMessage.split(" ").length <= maxWords);
+        }
+
+        List<String> parts(String greeting) {
+            return partsByGreeting.computeIfAbsent(greeting,
+                    g -> List.copyOf(messageSplitter.split(response.replace(GREETING_PLACEHOLDER, g))));
+        }
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        reload();
+        log.info("Respostas prontas carregadas: {} intenções de {}", intents.size(), location.getDescription());
+    }
+
+    /**
+     * Resposta pronta para a mensagem, já dividida em partes. Vazio quando
+     * nenhuma intenção casa (a mensagem segue para o RAG).
+     */
+    public Optional<List<String>> match(String normalizedMessage, String greeting, String firstName) {
+        reloadIfChanged();
+
+        for (Intent intent : intents) {
+            if (intent.matches(normalizedMessage)) {
+                log.debug("Intenção '{}' reconhecida", intent.name);
+                return Optional.of(personalize(intent.parts(greeting), firstName));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<String> personalize(List<String> parts, String firstName) {
+        String name = firstName != null ? " " + firstName : "";
+
+        List<String> personalized = null;
+        for (int i = 0; i < parts.size(); i++) {
+            String part = parts.get(i);
+            if (part.contains(NAME_PLACEHOLDER)) {
+                if (personalized == null) {
+                    personalized = new ArrayList<>(parts);
+                }
+                personalized.set(i, part.replace(NAME_PLACEHOLDER, name));
+            }
+        }
+        return personalized != null ? personalized : parts;
+    }
+
+    private void reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        if (!location.isFile() || now - lastReloadCheck < reloadCheckMs) {
+            return;
+        }
+        lastReloadCheck = now;
+
+        try {
+            if (location.lastModified() != loadedLastModified) {
+                reload();
+                log.info("🔁 Respostas prontas recarregadas: {} intenções", intents.size());
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao recarregar respostas prontas, mantendo a versão anterior: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reload() throws IOException {
+        long lastModified = location.isFile() ? location.lastModified() : 0;
+
+        IntentFile file;
+        try (InputStream in = location.getInputStream()) {
+            file = objectMapper.readValue(in, IntentFile.class);
+        }
+
+        List<Intent> compiled = new ArrayList<>();
+        for (IntentDefinition definition : file.intents()) {
+            compiled.add(new Intent(definition));
+        }
+
+        intents = List.copyOf(compiled);
+        loadedLastModified = lastModified;
+    }
+}
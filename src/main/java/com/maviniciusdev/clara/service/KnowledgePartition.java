@@ -0,0 +1,31 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Base de conhecimento de uma unidade SESI: pasta de documentos própria e
+ * tabela de vetores própria (com seu índice HNSW), de modo que buscas e
+ * reindexações de uma unidade não tocam nas outras.
+ *
+ * @param toNumbers   números Twilio que atendem a unidade (campo To do webhook)
+ * @param fromNumbers clientes associados à unidade por configuração (campo From)
+ */
+public record KnowledgePartition(String name,
+                                 Path documentsRoot,
+                                 String schemaName,
+                                 String tableName,
+                                 VectorStore vectorStore,
+                                 Set<String> toNumbers,
+                                 Set<String> fromNumbers) {
+
+    public String qualifiedTableName() {
+        return schemaName + "." + tableName;
+    }
+
+    public boolean contains(Path file) {
+        return file.toAbsolutePath().normalize().startsWith(documentsRoot);
+    }
+}
@@ -0,0 +1,179 @@
+package com.maviniciusdev.clara.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.PgVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Partições da base de conhecimento, uma por unidade.
+ *
+ * A partição "default" é a configuração de sempre ({@code documents.sesi.path}
+ * e a tabela do pgvector do auto-config, com a camada em memória se estiver
+ * ligada). Unidades extras vêm de {@code knowledge.partitions} e cada uma
+ * ganha um PgVectorStore sobre a sua tabela:
+ *
+ * <pre>
+ * knowledge.partitions=camacari
+ * knowledge.partition.camacari.documents-path=/srv/sesi/camacari
+ * knowledge.partition.camacari.table-name=vector_store_camacari
+ * knowledge.partition.camacari.to-numbers=whatsapp:+557130000001
+ * knowledge.partition.camacari.from-numbers=whatsapp:+5571999990000
+ * </pre>
+ *
+ * A partição de uma conversa é escolhida pelo remetente (mapeamento
+ * explícito), depois pelo número Twilio que recebeu a mensagem, e por fim
+ * cai na default.
+ */
+@Slf4j
+@Component
+public class KnowledgePartitionRegistry {
+
+    public static final String DEFAULT_PARTITION = "default";
+
+    private static final Pattern VALID_NAME = Pattern.compile("[a-z0-9_]+");
+
+    private final Map<String, KnowledgePartition> partitions = new LinkedHashMap<>();
+    private final Map<String, KnowledgePartition> byToNumber = new HashMap<>();
+    private final Map<String, KnowledgePartition> byFromNumber = new HashMap<>();
+
+    public KnowledgePartitionRegistry(VectorStore defaultVectorStore,
+                                      JdbcTemplate jdbcTemplate,
+                                      EmbeddingModel embeddingModel,
+                                      Environment environment) throws Exception {
+        String schemaName = environment.getProperty("spring.ai.vectorstore.pgvector.schema-name", "public");
+
+        register(new KnowledgePartition(
+                DEFAULT_PARTITION,
+                root(environment.getRequiredProperty("documents.sesi.path")),
+                schemaName,
+                environment.getProperty("spring.ai.vectorstore.pgvector.table-name", "vector_store"),
+                defaultVectorStore,
+                numbers(environment, DEFAULT_PARTITION, "to-numbers"),
+                numbers(environment, DEFAULT_PARTITION, "from-numbers")));
+
+        for (String name : environment.getProperty("knowledge.partitions", String[].class, new String[0])) {
+            name = name.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty() || name.equals(DEFAULT_PARTITION)) {
+                continue;
+            }
+            if (!VALID_NAME.matcher(name).matches()) {
+                throw new IllegalStateException("Nome de partição inválido (use a-z, 0-9, _): " + name);
+            }
+
+            String prefix = "knowledge.partition." + name + ".";
+            String tableName = environment.getProperty(prefix + "table-name", "vector_store_" + name);
+            if (!VALID_NAME.matcher(tableName).matches()) {
+                throw new IllegalStateException("Nome de tabela inválido para a partição " + name + ": " + tableName);
+            }
+
+            register(new KnowledgePartition(
+                    name,
+                    root(environment.getRequiredProperty(prefix + "documents-path")),
+                    schemaName,
+                    tableName,
+                    newVectorStore(jdbcTemplate, embeddingModel, environment, schemaName, tableName),
+                    numbers(environment, name, "to-numbers"),
+                    numbers(environment, name, "from-numbers")));
+        }
+
+        log.info("Bases de conhecimento: {}", partitions.keySet());
+    }
+
+    /**
+     * Partições já montadas, a primeira sendo a default. Para testes.
+     */
+    KnowledgePartitionRegistry(List<KnowledgePartition> partitions) {
+        partitions.forEach(this::register);
+    }
+
+    public Collection<KnowledgePartition> all() {
+        return Collections.unmodifiableCollection(partitions.values());
+    }
+
+    public KnowledgePartition defaultPartition() {
+        return partitions.get(DEFAULT_PARTITION);
+    }
+
+    public Optional<KnowledgePartition> byName(String name) {
+        return Optional.ofNullable(partitions.get(name));
+    }
+
+    /**
+     * Partição da conversa: mapeamento do remetente, depois número Twilio de
+     * destino, depois a default.
+     */
+    public KnowledgePartition resolve(String from, String to) {
+        KnowledgePartition partition = from != null ? byFromNumber.get(from) : null;
+        if (partition == null && to != null) {
+            partition = byToNumber.get(to);
+        }
+        return partition != null ? partition : defaultPartition();
+    }
+
+    /**
+     * Partição dona do arquivo, pela pasta em que ele está.
+     */
+    public Optional<KnowledgePartition> forFile(File file) {
+        Path path = file.toPath();
+        KnowledgePartition owner = null;
+        for (KnowledgePartition partition : partitions.values()) {
+            // A pasta mais específica ganha, caso uma raiz esteja dentro de outra
+            if (partition.contains(path)
+                    && (owner == null || partition.documentsRoot().startsWith(owner.documentsRoot()))) {
+                owner = partition;
+            }
+        }
+        return Optional.ofNullable(owner);
+    }
+
+    private void register(KnowledgePartition partition) {
+        partitions.put(partition.name(), partition);
+        partition.toNumbers().forEach(number -> byToNumber.put(number, partition));
+        partition.fromNumbers().forEach(number -> byFromNumber.put(number, partition));
+    }
+
+    private static VectorStore newVectorStore(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel,
+                                              Environment environment, String schemaName, String tableName) throws Exception {
+        String prefix = "spring.ai.vectorstore.pgvector.";
+        PgVectorStore store = new PgVectorStore.Builder(jdbcTemplate, embeddingModel)
+                .withSchemaName(schemaName)
+                .withVectorTableName(tableName)
+                .withDimensions(environment.getProperty(prefix + "dimensions", Integer.class, PgVectorStore.INVALID_EMBEDDING_DIMENSION))
+                .withDistanceType(environment.getProperty(prefix + "distance-type", PgVectorStore.PgDistanceType.class,
+                        PgVectorStore.PgDistanceType.COSINE_DISTANCE))
+                .withIndexType(environment.getProperty(prefix + "index-type", PgVectorStore.PgIndexType.class,
+                        PgVectorStore.PgIndexType.HNSW))
+                .withInitializeSchema(environment.getProperty(prefix + "initialize-schema", Boolean.class, false))
+                .build();
+
+        // Fora do contexto Spring: cria tabela e índice aqui
+        store.afterPropertiesSet();
+        return store;
+    }
+
+    private static Path root(String documentsPath) {
+        return Paths.get(documentsPath).toAbsolutePath().normalize();
+    }
+
+    private static Set<String> numbers(Environment environment, String partition, String key) {
+        String[] values = environment.getProperty("knowledge.partition." + partition + "." + key, String[].class, new String[0]);
+        Set<String> numbers = new LinkedHashSet<>();
+        for (String value : values) {
+            String number = value.trim().replace(" ", "");
+            if (!number.isEmpty()) {
+                numbers.add(number.startsWith("whatsapp:") ? number : "whatsapp:" + number);
+            }
+        }
+        return Set.copyOf(numbers);
+    }
+}
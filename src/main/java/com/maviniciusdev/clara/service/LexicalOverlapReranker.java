@@ -0,0 +1,130 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Re-ranking leve em CPU: BM25 calculado sobre o próprio conjunto de
+ * candidatos, combinado com a similaridade vetorial que veio do vector store.
+ * Custa microssegundos para algumas dezenas de chunks.
+ */
+@Component
+public class LexicalOverlapReranker implements DocumentReranker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "de", "da", "do", "das", "dos", "e", "em", "no", "na",
+            "nos", "nas", "um", "uma", "para", "pra", "por", "com", "que", "se", "eu",
+            "meu", "minha", "ao", "ou", "qual", "quais", "como", "sao", "ser", "tem", "voce"
+    );
+
+    private final double denseWeight;
+
+    public LexicalOverlapReranker(@Value("${rag.rerank.dense-weight:0.5}") double denseWeight) {
+        this.denseWeight = denseWeight;
+    }
+
+    @Override
+    public List<Document> rerank(String query, List<Document> candidates, int topN) {
+        if (candidates.size() <= 1) {
+            return candidates;
+        }
+
+        Set<String> queryTerms = new HashSet<>(terms(query));
+
+        // Frequência dos termos da pergunta em cada candidato
+        List<Map<String, Integer>> frequencies = new ArrayList<>(candidates.size());
+        int[] lengths = new int[candidates.size()];
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        long totalLength = 0;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            List<String> docTerms = terms(candidates.get(i).getContent());
+            Map<String, Integer> tf = new HashMap<>();
+            for (String term : docTerms) {
+                if (queryTerms.contains(term)) {
+                    tf.merge(term, 1, Integer::sum);
+                }
+            }
+            tf.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+
+            frequencies.add(tf);
+            lengths[i] = docTerms.size();
+            totalLength += docTerms.size();
+        }
+
+        double avgLength = Math.max(1.0, (double) totalLength / candidates.size());
+        int n = candidates.size();
+
+        double[] lexical = new double[n];
+        double maxLexical = 0;
+        for (int i = 0; i < n; i++) {
+            double score = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.get(i).entrySet()) {
+                int df = documentFrequency.get(entry.getKey());
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+                double tf = entry.getValue();
+                score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * lengths[i] / avgLength));
+            }
+            lexical[i] = score;
+            maxLexical = Math.max(maxLexical, score);
+        }
+
+        double[] combined = new double[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            double normalizedLexical = maxLexical > 0 ? lexical[i] / maxLexical : 0;
+            combined[i] = denseWeight * similarity(candidates.get(i)) + (1 - denseWeight) * normalizedLexical;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(combined[b], combined[a]));
+
+        List<Document> reranked = new ArrayList<>(Math.min(topN, n));
+        for (int i = 0; i < n && reranked.size() < topN; i++) {
+            // Cópia: os candidatos podem ser os mesmos objetos guardados no índice em memória
+            Document doc = candidates.get(order[i]);
+            Map<String, Object> metadata = new HashMap<>(doc.getMetadata());
+            metadata.put("rerank_score", combined[order[i]]);
+            reranked.add(new Document(doc.getId(), doc.getContent(), metadata));
+        }
+        return reranked;
+    }
+
+    /**
+     * Similaridade vetorial (1 - distância) informada pelo vector store.
+     */
+    private double similarity(Document doc) {
+        Object distance = doc.getMetadata().get("distance");
+        if (distance instanceof Number number) {
+            return 1.0 - number.doubleValue();
+        }
+        return 0;
+    }
+
+    /**
+     * Termos normalizados (sem acento, sem stopwords, prefixo de 6 letras como
+     * radical grosseiro). Também usados pelo embedding local dos testes de
+     * avaliação, para que a busca lexical e a densa vejam os mesmos termos.
+     */
+    public static List<String> terms(String text) {
+        String normalized = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase();
+
+        List<String> terms = new ArrayList<>();
+        for (String token : normalized.split("[^a-z0-9+]+")) {
+            if (token.length() < 2 || STOPWORDS.contains(token)) {
+                continue;
+            }
+            // Radical grosseiro: plural e flexões caem no mesmo termo
+            terms.add(token.length() > 6 ? token.substring(0, 6) : token);
+        }
+        return terms;
+    }
+}
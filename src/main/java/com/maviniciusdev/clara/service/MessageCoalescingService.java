@@ -0,0 +1,187 @@
+package com.maviniciusdev.clara.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junta mensagens rápidas do mesmo remetente num único turno.
+ *
+ * No WhatsApp é comum a pergunta chegar em pedaços ("oi", "queria saber",
+ * "sobre o prazo do pcmso"). Cada pedaço reinicia uma janela curta; quando
+ * ela fecha sem mensagem nova, os pedaços seguem juntos para o processamento,
+ * gerando uma só chamada ao LLM e uma só resposta.
+ *
+ * O buffer por telefone é um valor imutável num ConcurrentHashMap, atualizado
+ * por compare-and-set (putIfAbsent/replace/remove condicional), sem locks.
+ * O handler roda no thread do timer e deve só despachar o turno para uma fila
+ * do {@link WorkScheduler}, sem fazer o trabalho pesado ali.
+ *
+ * Os turnos de um mesmo telefone são encadeados: o seguinte só é despachado
+ * quando o anterior termina, para que as respostas saiam na ordem das
+ * perguntas mesmo que as filas tenham vários threads.
+ */
+@Slf4j
+@Service
+public class MessageCoalescingService {
+
+    /**
+     * Recebe o turno já consolidado e devolve um estágio que completa quando
+     * ele termina (resposta enviada ou descartada).
+     */
+    @FunctionalInterface
+    public interface TurnHandler {
+        CompletionStage<?> handle(String from, String body, String profileName);
+    }
+
+    private record PendingTurn(List<String> parts, String profileName, TurnHandler handler,
+                               long firstArrivalNanos, long lastArrivalNanos) {
+
+        PendingTurn append(String body, String profileName, long now) {
+            List<String> merged = new ArrayList<>(parts.size() + 1);
+            merged.addAll(parts);
+            merged.add(body);
+            return new PendingTurn(Collections.unmodifiableList(merged),
+                    profileName != null ? profileName : this.profileName,
+                    handler, firstArrivalNanos, now);
+        }
+    }
+
+    private final ConcurrentMap<String, PendingTurn> pendingTurns = new ConcurrentHashMap<>();
+    // Último turno despachado por telefone; o próximo espera por ele
+    private final ConcurrentMap<String, CompletableFuture<Void>> turnsInFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    private final long windowNanos;
+    private final long maxWaitNanos;
+
+    public MessageCoalescingService(
+            @Value("${whatsapp.coalescing.window-ms:2500}") long windowMs,
+            @Value("${whatsapp.coalescing.max-wait-ms:10000}") long maxWaitMs) {
+
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMs, maxWaitMs));
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(namedThreads("coalescing-timer"));
+    }
+
+    /**
+     * Adiciona a mensagem ao turno pendente do remetente. Com janela zero, o
+     * turno é despachado direto, sem agrupamento (mas ainda na ordem).
+     */
+    public void submit(String from, String body, String profileName, TurnHandler handler) {
+        if (windowNanos <= 0) {
+            dispatch(from, body, profileName, handler);
+            return;
+        }
+
+        long now = System.nanoTime();
+        while (true) {
+            PendingTurn current = pendingTurns.get(from);
+
+            if (current == null) {
+                PendingTurn fresh = new PendingTurn(List.of(body), profileName, handler, now, now);
+                if (pendingTurns.putIfAbsent(from, fresh) == null) {
+                    schedule(from, windowNanos);
+                    return;
+                }
+            } else if (pendingTurns.replace(from, current, current.append(body, profileName, now))) {
+                log.debug("Mensagem agrupada ao turno de {} ({} partes)", from, current.parts().size() + 1);
+                return;
+            }
+            // Outro thread mudou o buffer no meio do caminho, tentar de novo
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void schedule(String from, long delayNanos) {
+        timer.schedule(() -> tryFlush(from), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fecha o turno se a janela expirou; senão reagenda para o tempo restante.
+     */
+    private void tryFlush(String from) {
+        PendingTurn turn = pendingTurns.get(from);
+        if (turn == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long quietFor = now - turn.lastArrivalNanos();
+        long waitingFor = now - turn.firstArrivalNanos();
+
+        if (quietFor < windowNanos && waitingFor < maxWaitNanos) {
+            long remaining = Math.min(windowNanos - quietFor, maxWaitNanos - waitingFor);
+            schedule(from, remaining);
+            return;
+        }
+
+        if (!pendingTurns.remove(from, turn)) {
+            // Chegou mensagem nova entre a leitura e a remoção
+            schedule(from, 0);
+            return;
+        }
+
+        String body = String.join(" ", turn.parts());
+        if (turn.parts().size() > 1) {
+            log.info("🧩 {} mensagens de {} agrupadas em um turno", turn.parts().size(), from);
+        }
+
+        dispatch(from, body, turn.profileName(), turn.handler());
+    }
+
+    /**
+     * Entra na fila do telefone: roda já se não há turno em andamento, senão
+     * quando o anterior terminar (de volta no thread do timer).
+     */
+    private void dispatch(String from, String body, String profileName, TurnHandler handler) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = turnsInFlight.put(from, done);
+
+        Runnable start = () -> handle(from, body, profileName, handler).whenComplete((ignored, error) -> {
+            turnsInFlight.remove(from, done);
+            done.complete(null);
+        });
+
+        if (previous == null) {
+            start.run();
+        } else {
+            log.debug("Turno de {} aguardando o anterior terminar", from);
+            previous.whenCompleteAsync((ignored, error) -> start.run(), timer);
+        }
+    }
+
+    /**
+     * Chama o handler; nunca falha, para não travar a fila do telefone.
+     */
+    private CompletionStage<?> handle(String from, String body, String profileName, TurnHandler handler) {
+        try {
+            CompletionStage<?> stage = handler.handle(from, body, profileName);
+            return stage != null ? stage : CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            log.error("Erro ao despachar turno de {}", from, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divide respostas longas em partes que cabem numa mensagem do WhatsApp.
+ *
+ * Percorre o texto uma vez por índices, sem regex nem cópias intermediárias:
+ * para cada parte, volta a partir do limite procurando o melhor ponto de corte
+ * (quebra de parágrafo, depois fim de frase, depois espaço). Toda parte tem
+ * no máximo {@link #MAX_MESSAGE_LENGTH} caracteres e nenhum texto é perdido.
+ */
+@Component
+public class MessageSplitter {
+
+    public static final int MAX_MESSAGE_LENGTH = 1600;
+
+    private final int maxLength;
+
+    public MessageSplitter() {
+        this(MAX_MESSAGE_LENGTH);
+    }
+
+    public MessageSplitter(int maxLength) {
+        if (maxLength < 2) {
+            throw new IllegalArgumentException("maxLength deve ser pelo menos 2");
+        }
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Divide mensagem longa de forma natural, respeitando parágrafos e frases
+     */
+    public List<String> split(String message) {
+        if (message.length() <= maxLength) {
+            return List.of(message);
+        }
+
+        List<String> parts = new ArrayList<>(message.length() / maxLength + 2);
+        int length = trimmedEnd(message, 0, message.length());
+        int start = skipWhitespace(message, 0, length);
+
+        while (start < length) {
+            if (length - start <= maxLength) {
+                parts.add(message.substring(start, length));
+                break;
+            }
+
+            int cut = findCut(message, start, start + maxLength);
+            int end = trimmedEnd(message, start, cut);
+            if (end > start) {
+                parts.add(message.substring(start, end));
+            }
+            start = skipWhitespace(message, cut, length);
+        }
+
+        return parts;
+    }
+
+    /**
+     * Melhor ponto de corte em (start, limit]: a parte vai de start até o
+     * índice devolvido (exclusivo). Uma única varredura de trás para frente
+     * registra o último fim de frase e o último espaço e para na primeira
+     * quebra de parágrafo encontrada.
+     */
+    private int findCut(String text, int start, int limit) {
+        int sentenceCut = -1;
+        int spaceCut = -1;
+
+        for (int i = limit; i > start; i--) {
+            char c = text.charAt(i);
+
+            if (c == '\n' && text.charAt(i - 1) == '\n') {
+                return i - 1;
+            }
+
+            if (Character.isWhitespace(c)) {
+                if (spaceCut < 0) {
+                    spaceCut = i;
+                }
+                if (sentenceCut < 0 && isSentenceEnd(text.charAt(i - 1))) {
+                    sentenceCut = i;
+                }
+            }
+        }
+
+        if (sentenceCut > 0) {
+            return sentenceCut;
+        }
+        if (spaceCut > 0) {
+            return spaceCut;
+        }
+
+        // Sem nenhum espaço (ex.: URL enorme): corte seco, sem partir emoji
+        return Character.isHighSurrogate(text.charAt(limit - 1)) ? limit - 1 : limit;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    private static int skipWhitespace(String text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimmedEnd(String text, int from, int to) {
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,479 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.PgVectorStore;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Camada rápida em memória na frente do PGVector.
+ *
+ * Mantém os embeddings quantizados em int8 (arrays primitivos) para uma busca
+ * bruta barata, e refaz o ranking dos melhores candidatos com os vetores em
+ * precisão total. O PGVector continua sendo a fonte da verdade: toda escrita
+ * vai primeiro para ele, e buscas com filtro ou com o índice vazio caem nele.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "vectorstore.memory.enabled", havingValue = "true")
+public class QuantizedVectorStore implements VectorStore {
+
+    private static final String DISTANCE_METADATA = "distance";
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final PgVectorStore delegate;
+    private final EmbeddingModel embeddingModel;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${vectorstore.memory.oversample:4}")
+    private int oversample;
+
+    @Value("${vectorstore.memory.warm-load:true}")
+    private boolean warmLoad;
+
+    @Value("${spring.ai.vectorstore.pgvector.schema-name:public}")
+    private String schemaName;
+
+    @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}")
+    private String tableName;
+
+    // Layout plano: o vetor i ocupa [i * dimensions, (i + 1) * dimensions)
+    private int dimensions;
+    private int size;
+    private byte[] codes = new byte[0];
+    private float[] scales = new float[0];
+    private float[] vectors = new float[0];
+    private String[] ids = new String[0];
+    private String[] contents = new String[0];
+    private Map<String, Object>[] metadatas = newMetadataArray(0);
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    public QuantizedVectorStore(PgVectorStore delegate,
+                                EmbeddingModel embeddingModel,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper) {
+        this.delegate = delegate;
+        this.embeddingModel = embeddingModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Carrega o que já está no PGVector, para que a camada em memória sirva
+     * buscas mesmo quando a reindexação no startup está desabilitada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmLoadFromPgVector() {
+        if (!warmLoad) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<Document> stored = jdbcTemplate.query(
+                    "SELECT id::text AS id, content, metadata::text AS metadata, embedding::text AS embedding FROM "
+                            + qualifiedTableName(),
+                    (rs, rowNum) -> mapRow(rs)
+            );
+            putAll(stored);
+            log.info("⚡ Índice em memória carregado: {} vetores ({} dims) em {} ms",
+                    size, dimensions, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Não foi possível carregar o índice em memória a partir do PGVector: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        // Fonte da verdade primeiro
+        delegate.add(documents);
+
+        List<Document> withEmbeddings = new ArrayList<>(documents.size());
+        List<String> missing = new ArrayList<>();
+        for (Document doc : documents) {
+            if (doc.getEmbedding() != null && doc.getEmbedding().length > 0) {
+                withEmbeddings.add(doc);
+            } else {
+                missing.add(doc.getId());
+            }
+        }
+
+        // O PGVector não devolve os embeddings calculados, então lemos de volta
+        // as linhas recém-inseridas em vez de chamar o modelo de novo
+        if (!missing.isEmpty()) {
+            try {
+                withEmbeddings.addAll(jdbcTemplate.query(
+                        "SELECT id::text AS id, content, metadata::text AS metadata, embedding::text AS embedding FROM "
+                                + qualifiedTableName() + " WHERE id::text = ANY(?)",
+                        ps -> {
+                            Array array = ps.getConnection().createArrayOf("text", missing.toArray());
+                            ps.setArray(1, array);
+                        },
+                        (rs, rowNum) -> mapRow(rs)
+                ));
+            } catch (Exception e) {
+                log.warn("Falha ao sincronizar {} vetores com o índice em memória: {}",
+                        missing.size(), e.getMessage());
+            }
+        }
+
+        putAll(withEmbeddings);
+    }
+
+    @Override
+    public Optional<Boolean> delete(List<String> idList) {
+        Optional<Boolean> result = delegate.delete(idList);
+
+        lock.writeLock().lock();
+        try {
+            for (String id : idList) {
+                removeSlot(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        // Filtros de metadados ficam com o PGVector
+        if (request.hasFilterExpression() || isEmpty()) {
+            return delegate.similaritySearch(request);
+        }
+
+        float[] query = normalize(embeddingModel.embed(request.getQuery()));
+
+        lock.readLock().lock();
+        try {
+            if (query.length != dimensions) {
+                log.warn("Dimensão da consulta ({}) difere do índice em memória ({}), usando PGVector",
+                        query.length, dimensions);
+                return delegate.similaritySearch(request);
+            }
+            return search(query, request.getTopK(), request.getSimilarityThreshold());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tamanho do índice em memória e quanto ele ocupa nos arrays principais.
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("vectors", size);
+            values.put("dimensions", dimensions);
+            values.put("capacity", ids.length);
+            values.put("codeBytes", (long) codes.length);
+            values.put("vectorBytes", (long) vectors.length * Float.BYTES);
+            values.put("scaleBytes", (long) scales.length * Float.BYTES);
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Busca bruta nos códigos int8 seguida de re-ranking em precisão total.
+     * Deve ser chamada com o read lock adquirido.
+     */
+    private List<Document> search(float[] query, int topK, double threshold) {
+        if (topK <= 0) {
+            return Collections.emptyList();
+        }
+
+        byte[] queryCodes = new byte[dimensions];
+        float queryScale = quantize(query, 0, queryCodes, 0);
+
+        // 1. Pré-seleção aproximada com min-heap de tamanho fixo
+        int candidates = Math.min(size, Math.max(topK, topK * oversample));
+        int[] heapSlots = new int[candidates];
+        float[] heapScores = new float[candidates];
+        int heapSize = 0;
+
+        for (int slot = 0; slot < size; slot++) {
+            int offset = slot * dimensions;
+            int dot = 0;
+            for (int d = 0; d < dimensions; d++) {
+                dot += queryCodes[d] * codes[offset + d];
+            }
+            float approx = dot * queryScale * scales[slot];
+
+            if (heapSize < candidates) {
+                heapSlots[heapSize] = slot;
+                heapScores[heapSize] = approx;
+                siftUp(heapSlots, heapScores, heapSize++);
+            } else if (approx > heapScores[0]) {
+                heapSlots[0] = slot;
+                heapScores[0] = approx;
+                siftDown(heapSlots, heapScores, heapSize);
+            }
+        }
+
+        // 2. Re-ranking com os vetores completos
+        List<Document> results = new ArrayList<>(heapSize);
+        float[] exact = new float[heapSize];
+        Integer[] order = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            int offset = heapSlots[i] * dimensions;
+            float dot = 0f;
+            for (int d = 0; d < dimensions; d++) {
+                dot += query[d] * vectors[offset + d];
+            }
+            exact[i] = dot;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(exact[b], exact[a]));
+
+        for (Integer i : order) {
+            if (results.size() == topK || exact[i] < threshold) {
+                break;
+            }
+            int slot = heapSlots[i];
+            Map<String, Object> metadata = new HashMap<>(metadatas[slot]);
+            metadata.put(DISTANCE_METADATA, 1.0f - exact[i]);
+            results.add(new Document(ids[slot], contents[slot], metadata));
+        }
+
+        return results;
+    }
+
+    private void putAll(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Document doc : documents) {
+                float[] embedding = doc.getEmbedding();
+                if (embedding == null || embedding.length == 0) {
+                    continue;
+                }
+                if (dimensions == 0) {
+                    dimensions = embedding.length;
+                } else if (embedding.length != dimensions) {
+                    log.warn("Vetor {} ignorado no índice em memória: {} dims (esperado {})",
+                            doc.getId(), embedding.length, dimensions);
+                    continue;
+                }
+
+                Integer existing = slotById.get(doc.getId());
+                int slot = existing != null ? existing : size++;
+                ensureCapacity(size);
+
+                float[] normalized = normalize(embedding);
+                System.arraycopy(normalized, 0, vectors, slot * dimensions, dimensions);
+                scales[slot] = quantize(normalized, 0, codes, slot * dimensions);
+                ids[slot] = doc.getId();
+                contents[slot] = doc.getContent();
+                metadatas[slot] = new HashMap<>(doc.getMetadata());
+                slotById.put(doc.getId(), slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove movendo o último slot para a posição liberada.
+     * Deve ser chamada com o write lock adquirido.
+     */
+    private void removeSlot(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+
+        int last = --size;
+        if (slot != last) {
+            System.arraycopy(codes, last * dimensions, codes, slot * dimensions, dimensions);
+            System.arraycopy(vectors, last * dimensions, vectors, slot * dimensions, dimensions);
+            scales[slot] = scales[last];
+            ids[slot] = ids[last];
+            contents[slot] = contents[last];
+            metadatas[slot] = metadatas[last];
+            slotById.put(ids[slot], slot);
+        }
+
+        ids[last] = null;
+        contents[last] = null;
+        metadatas[last] = null;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+
+        int capacity = Math.max(INITIAL_CAPACITY, ids.length);
+        while (capacity < required) {
+            capacity *= 2;
+        }
+
+        codes = Arrays.copyOf(codes, capacity * dimensions);
+        vectors = Arrays.copyOf(vectors, capacity * dimensions);
+        scales = Arrays.copyOf(scales, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        contents = Arrays.copyOf(contents, capacity);
+        metadatas = Arrays.copyOf(metadatas, capacity);
+    }
+
+    /**
+     * Quantização simétrica por vetor: x ≈ code * scale, com code em [-127, 127].
+     */
+    static float quantize(float[] source, int sourceOffset, byte[] target, int targetOffset) {
+        int length = source.length - sourceOffset;
+        float maxAbs = 0f;
+        for (int i = 0; i < length; i++) {
+            maxAbs = Math.max(maxAbs, Math.abs(source[sourceOffset + i]));
+        }
+        if (maxAbs == 0f) {
+            Arrays.fill(target, targetOffset, targetOffset + length, (byte) 0);
+            return 0f;
+        }
+
+        float scale = maxAbs / 127f;
+        for (int i = 0; i < length; i++) {
+            target[targetOffset + i] = (byte) Math.round(source[sourceOffset + i] / scale);
+        }
+        return scale;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static void siftUp(int[] slots, float[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                return;
+            }
+            swap(slots, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] slots, float[] scores, int heapSize) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < heapSize && scores[right] < scores[left] ? right : left;
+            if (scores[index] <= scores[smallest]) {
+                return;
+            }
+            swap(slots, scores, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] slots, float[] scores, int a, int b) {
+        int slot = slots[a];
+        slots[a] = slots[b];
+        slots[b] = slot;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private Document mapRow(ResultSet rs) throws SQLException {
+        Map<String, Object> metadata;
+        try {
+            String json = rs.getString("metadata");
+            metadata = json != null
+                    ? objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {})
+                    : new HashMap<>();
+        } catch (Exception e) {
+            log.warn("Metadados inválidos no vetor {}, carregado sem metadados: {}", rs.getString("id"), e.getMessage());
+            metadata = new HashMap<>();
+        }
+
+        Document doc = new Document(rs.getString("id"), rs.getString("content"), metadata);
+        doc.setEmbedding(parseVector(rs.getString("embedding")));
+        return doc;
+    }
+
+    private static float[] parseVector(String text) {
+        if (text == null || text.length() < 2) {
+            return new float[0];
+        }
+
+        // Formato textual do pgvector: [0.1,0.2,...]
+        String body = text.substring(1, text.length() - 1);
+        if (body.isEmpty()) {
+            return new float[0];
+        }
+
+        String[] values = body.split(",");
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = Float.parseFloat(values[i]);
+        }
+        return vector;
+    }
+
+    private String qualifiedTableName() {
+        return schemaName + "." + tableName;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] newMetadataArray(int length) {
+        return (Map<String, Object>[]) new Map[length];
+    }
+}
@@ -3,15 +3,24 @@ package com.maviniciusdev.clara.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.ollama.api.OllamaOptions;
 import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,7 +29,49 @@ import java.util.stream.Collectors;
 public class RAGService {
 
     private final ChatClient.Builder chatClientBuilder;
-    private final VectorStore vectorStore;
+    private final KnowledgePartitionRegistry partitions;
+    private final DocumentReranker documentReranker;
+    private final RagMetrics ragMetrics;
+
+    @Value("${rag.search.top-k:4}")
+    private int topK;
+
+    @Value("${rag.search.similarity-threshold:0.6}")
+    private double similarityThreshold;
+
+    @Value("${rag.rerank.enabled:false}")
+    private boolean rerankEnabled;
+
+    @Value("${rag.rerank.candidates:20}")
+    private int rerankCandidates;
+
+    @Value("${rag.rerank.top-n:2}")
+    private int rerankTopN;
+
+    // ~1600 caracteres de WhatsApp
+    @Value("${rag.generation.max-tokens:400}")
+    private int maxTokens;
+
+    @Value("${rag.generation.chars-per-token:4}")
+    private int charsPerToken;
+
+    @Value("${rag.generation.num-ctx-min:2048}")
+    private int numCtxMin;
+
+    @Value("${rag.generation.num-ctx-max:8192}")
+    private int numCtxMax;
+
+    @Value("${rag.generation.stop:PERGUNTA DO CLIENTE:,DOCUMENTOS:}")
+    private String[] stopSequences;
+
+    @Value("${rag.generation.timeout-ms:30000}")
+    private long generationTimeoutMs;
+
+    /**
+     * Texto gerado e a contabilidade da chamada.
+     */
+    private record Generation(String content, long promptTokens, long completionTokens,
+                              long firstTokenNanos, boolean truncated, boolean timedOut) {}
 
     private static final String SYSTEM_PROMPT = """
         Você é Clara, uma profissional do SESI que ajuda clientes com dúvidas sobre 
@@ -69,13 +120,33 @@ public class RAGService {
             """;
 
     public String answerWithContext(String question) {
+        return answerWithContext(question, partitions.defaultPartition());
+    }
+
+    /**
+     * Responde usando só a base da unidade: a busca vai direto à tabela (e ao
+     * índice HNSW) da partição, sem filtro por metadado.
+     */
+    public String answerWithContext(String question, KnowledgePartition partition) {
         try {
-            // 1. Buscar documentos relevantes
-            List<Document> relevantDocs = vectorStore.similaritySearch(
+            // 1. Buscar documentos relevantes (com re-ranking, busca mais candidatos)
+            int fetchK = rerankEnabled ? Math.max(rerankCandidates, topK) : topK;
+
+            long retrievalStart = System.nanoTime();
+            List<Document> relevantDocs = partition.vectorStore().similaritySearch(
                     SearchRequest.query(question)
-                            .withTopK(4)
-                            .withSimilarityThreshold(0.6)
+                            .withTopK(fetchK)
+                            .withSimilarityThreshold(similarityThreshold)
             );
+            ragMetrics.recordRetrieval(System.nanoTime() - retrievalStart, relevantDocs.size());
+            ragMetrics.recordScores(relevantDocs);
+
+            // 1.1 Re-ranking local, só os melhores vão para o prompt
+            if (rerankEnabled && relevantDocs.size() > 1) {
+                long rerankStart = System.nanoTime();
+                relevantDocs = documentReranker.rerank(question, relevantDocs, rerankTopN);
+                ragMetrics.recordRerank(System.nanoTime() - rerankStart);
+            }
 
             if (relevantDocs.isEmpty()) {
                 log.warn("Nenhum documento relevante encontrado para: {}", question);
@@ -102,13 +173,24 @@ public class RAGService {
                     "question", question
             ));
 
-            // 4. Chamar LLM
-            ChatClient chatClient = chatClientBuilder.build();
-            String response = chatClient.prompt()
-                    .system(SYSTEM_PROMPT)
-                    .user(prompt.getContents())
-                    .call()
-                    .content();
+            // 4. Chamar LLM (com orçamento de tokens e prazo)
+            long generationStart = System.nanoTime();
+            Generation generation = generate(prompt.getContents());
+            long generationNanos = System.nanoTime() - generationStart;
+
+            ragMetrics.recordGeneration(generationNanos, relevantDocs.size(), context.length());
+            ragMetrics.recordTokens(generation.promptTokens(), generation.completionTokens(),
+                    generation.firstTokenNanos(), generation.truncated(), generation.timedOut());
+
+            log.debug("Geração: {} tokens de prompt, {} gerados, {} ms{}{}",
+                    generation.promptTokens(), generation.completionTokens(), generationNanos / 1_000_000,
+                    generation.truncated() ? ", cortada no limite" : "",
+                    generation.timedOut() ? ", prazo estourado" : "");
+
+            if (generation.content().isBlank()) {
+                throw new IllegalStateException("LLM não gerou resposta dentro do prazo");
+            }
+            String response = generation.content();
 
             log.info("Resposta gerada com sucesso para: {}", question);
             return response;
@@ -119,4 +201,92 @@ public class RAGService {
                     "Se continuar com erro, me avisa que chamo alguém da equipe técnica. 😊";
         }
     }
+
+    /**
+     * Gera a resposta em streaming com opções por requisição: num_predict no
+     * tamanho de uma resposta de WhatsApp, num_ctx dimensionado para o prompt,
+     * stop sequences e prazo máximo. Ao estourar o prazo a assinatura é
+     * cancelada (o Ollama interrompe a geração) e fica o que já foi gerado.
+     */
+    private Generation generate(String userPrompt) {
+        OllamaOptions options = OllamaOptions.create()
+                .withNumPredict(maxTokens)
+                .withNumCtx(contextWindowFor(SYSTEM_PROMPT.length() + userPrompt.length()))
+                .withStop(Arrays.asList(stopSequences));
+
+        StringBuilder content = new StringBuilder();
+        AtomicLong promptTokens = new AtomicLong();
+        AtomicLong completionTokens = new AtomicLong();
+        AtomicLong firstTokenNanos = new AtomicLong();
+        String[] finishReason = new String[1];
+        boolean[] timedOut = new boolean[1];
+
+        long start = System.nanoTime();
+        Flux<ChatResponse> stream = chatClientBuilder.build()
+                .prompt()
+                .system(SYSTEM_PROMPT)
+                .user(userPrompt)
+                .options(options)
+                .stream()
+                .chatResponse();
+
+        Mono<Long> deadline = Mono.delay(Duration.ofMillis(generationTimeoutMs))
+                .doOnNext(tick -> {
+                    timedOut[0] = true;
+                    log.warn("⏱️ Geração interrompida após {} ms", generationTimeoutMs);
+                });
+
+        stream.takeUntilOther(deadline)
+                .doOnNext(chunk -> {
+                    if (chunk.getResult() != null && chunk.getResult().getOutput().getContent() != null) {
+                        if (content.isEmpty()) {
+                            firstTokenNanos.set(System.nanoTime() - start);
+                        }
+                        content.append(chunk.getResult().getOutput().getContent());
+                        if (chunk.getResult().getMetadata().getFinishReason() != null) {
+                            finishReason[0] = chunk.getResult().getMetadata().getFinishReason();
+                        }
+                    }
+                    Usage usage = chunk.getMetadata().getUsage();
+                    if (usage != null) {
+                        promptTokens.accumulateAndGet(valueOf(usage.getPromptTokens()), Math::max);
+                        completionTokens.accumulateAndGet(valueOf(usage.getGenerationTokens()), Math::max);
+                    }
+                })
+                .blockLast();
+
+        boolean truncated = "length".equalsIgnoreCase(finishReason[0]) || timedOut[0];
+        String text = truncated ? cutAtLastSentence(content.toString()) : content.toString().trim();
+
+        // Sem contagem do servidor (ex.: prazo estourado antes do fim), estima pelo tamanho
+        long completion = completionTokens.get() > 0 ? completionTokens.get() : content.length() / charsPerToken;
+
+        return new Generation(text, promptTokens.get(), completion, firstTokenNanos.get(), truncated, timedOut[0]);
+    }
+
+    /**
+     * num_ctx suficiente para o prompt mais a resposta, arredondado para
+     * potência de 2: cada valor diferente faz o Ollama recarregar o modelo.
+     */
+    private int contextWindowFor(int promptChars) {
+        int needed = promptChars / Math.max(1, charsPerToken) + maxTokens;
+        int window = Integer.highestOneBit(Math.max(1, needed - 1)) << 1;
+        return Math.max(numCtxMin, Math.min(numCtxMax, window));
+    }
+
+    /**
+     * Resposta cortada no limite de tokens: descarta a frase pela metade.
+     */
+    private static String cutAtLastSentence(String text) {
+        String trimmed = text.trim();
+        int end = Math.max(trimmed.lastIndexOf(". "), Math.max(trimmed.lastIndexOf("! "), trimmed.lastIndexOf("? ")));
+        if (trimmed.endsWith(".") || trimmed.endsWith("!") || trimmed.endsWith("?") || end < 0) {
+            return trimmed;
+        }
+        return trimmed.substring(0, end + 1);
+    }
+
+    private static long valueOf(Long tokens) {
+        return tokens != null ? tokens : 0;
+    }
 }
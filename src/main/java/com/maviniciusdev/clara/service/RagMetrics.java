@@ -0,0 +1,166 @@
+package com.maviniciusdev.clara.service;
+
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores acumulados do pipeline RAG, por estágio.
+ */
+@Component
+public class RagMetrics {
+
+    private final Stage retrieval = new Stage();
+    private final Stage rerank = new Stage();
+    private final Stage generation = new Stage();
+
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder contextDocuments = new LongAdder();
+    private final LongAdder contextChars = new LongAdder();
+
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final LongAdder firstTokenNanos = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    // Histogramas de similaridade (1 - distância) em faixas de 0.1
+    private static final int SCORE_BUCKETS = 10;
+    private final LongAdder[] scoreBuckets = newBuckets();
+    private final LongAdder[] topScoreBuckets = newBuckets();
+    private final LongAdder emptyResults = new LongAdder();
+
+    public void recordRetrieval(long nanos, int candidateCount) {
+        retrieval.record(nanos);
+        candidates.add(candidateCount);
+    }
+
+    /**
+     * Distribuição dos scores devolvidos por uma busca: todos os resultados e
+     * o melhor de cada consulta.
+     */
+    public void recordScores(List<Document> results) {
+        if (results.isEmpty()) {
+            emptyResults.increment();
+            return;
+        }
+
+        double top = -1;
+        for (Document doc : results) {
+            if (doc.getMetadata().get("distance") instanceof Number distance) {
+                double score = 1 - distance.doubleValue();
+                scoreBuckets[bucket(score)].increment();
+                top = Math.max(top, score);
+            }
+        }
+        if (top >= 0) {
+            topScoreBuckets[bucket(top)].increment();
+        }
+    }
+
+    public void recordRerank(long nanos) {
+        rerank.record(nanos);
+    }
+
+    public void recordGeneration(long nanos, int documentCount, int contextLength) {
+        generation.record(nanos);
+        contextDocuments.add(documentCount);
+        contextChars.add(contextLength);
+    }
+
+    public void recordTokens(long prompt, long completion, long firstToken, boolean wasTruncated, boolean wasTimedOut) {
+        promptTokens.add(prompt);
+        completionTokens.add(completion);
+        firstTokenNanos.add(firstToken);
+        if (wasTruncated) {
+            truncated.increment();
+        }
+        if (wasTimedOut) {
+            timedOut.increment();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long answers = generation.count.sum();
+        long searches = retrieval.count.sum();
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("retrieval", retrieval.snapshot());
+        values.put("rerank", rerank.snapshot());
+        values.put("generation", generation.snapshot());
+        values.put("avgCandidates", searches > 0 ? (double) candidates.sum() / searches : 0);
+        values.put("avgContextDocuments", answers > 0 ? (double) contextDocuments.sum() / answers : 0);
+        values.put("avgContextChars", answers > 0 ? (double) contextChars.sum() / answers : 0);
+        values.put("tokens", tokens(answers));
+        values.put("scores", scores());
+        return values;
+    }
+
+    private Map<String, Object> scores() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("all", histogram(scoreBuckets));
+        values.put("topPerQuery", histogram(topScoreBuckets));
+        values.put("emptyResults", emptyResults.sum());
+        return values;
+    }
+
+    private static Map<String, Long> histogram(LongAdder[] buckets) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            values.put(String.format(Locale.ROOT, "%.1f-%.1f", i / 10.0, (i + 1) / 10.0), buckets[i].sum());
+        }
+        return values;
+    }
+
+    private static int bucket(double score) {
+        return Math.max(0, Math.min(SCORE_BUCKETS - 1, (int) (score * SCORE_BUCKETS)));
+    }
+
+    private static LongAdder[] newBuckets() {
+        LongAdder[] buckets = new LongAdder[SCORE_BUCKETS];
+        for (int i = 0; i < SCORE_BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        return buckets;
+    }
+
+    private Map<String, Object> tokens(long answers) {
+        long generated = completionTokens.sum();
+        double generationSeconds = generation.nanos.sum() / 1_000_000_000.0;
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("promptTotal", promptTokens.sum());
+        values.put("completionTotal", generated);
+        values.put("avgPrompt", answers > 0 ? (double) promptTokens.sum() / answers : 0);
+        values.put("avgCompletion", answers > 0 ? (double) generated / answers : 0);
+        values.put("completionPerSecond", generationSeconds > 0 ? generated / generationSeconds : 0);
+        values.put("avgFirstTokenMillis", answers > 0 ? firstTokenNanos.sum() / 1_000_000.0 / answers : 0);
+        values.put("truncated", truncated.sum());
+        values.put("timedOut", timedOut.sum());
+        return values;
+    }
+
+    private static class Stage {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void record(long elapsed) {
+            count.increment();
+            nanos.add(elapsed);
+        }
+
+        Map<String, Object> snapshot() {
+            long calls = count.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("calls", calls);
+            values.put("avgMillis", calls > 0 ? nanos.sum() / 1_000_000.0 / calls : 0);
+            return values;
+        }
+    }
+}
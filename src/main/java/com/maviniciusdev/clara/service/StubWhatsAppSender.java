@@ -0,0 +1,78 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Envia pela API de mensagens do Twilio falso ({@code TwilioStubController}),
+ * com o mesmo formulário (To, From, Body ou ContentSid/ContentVariables) e os
+ * mesmos códigos de resposta.
+ */
+@Component
+@ConditionalOnProperty(name = "whatsapp.sender", havingValue = "stub")
+public class StubWhatsAppSender implements WhatsAppSender {
+
+    private final RestClient restClient;
+    private final String from;
+
+    public StubWhatsAppSender(
+            RestClient.Builder restClientBuilder,
+            @Value("${whatsapp.stub.url:http://localhost:${server.port:8080}/stub/twilio/2010-04-01/Accounts/stub/Messages.json}") String url,
+            @Value("${twilio.whatsapp.number}") String from) {
+        this.restClient = restClientBuilder.baseUrl(url).build();
+        this.from = from;
+    }
+
+    @Override
+    public String send(String to, String body) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("To", to);
+        form.add("From", from);
+        form.add("Body", body);
+        return post(form);
+    }
+
+    @Override
+    public String sendTemplate(String to, String contentSid, String contentVariables) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("To", to);
+        form.add("From", from);
+        form.add("ContentSid", contentSid);
+        if (contentVariables != null) {
+            form.add("ContentVariables", contentVariables);
+        }
+        return post(form);
+    }
+
+    private String post(MultiValueMap<String, String> form) {
+        try {
+            JsonNode response = restClient.post()
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(form)
+                    .retrieve()
+                    .body(JsonNode.class);
+            return response != null ? response.path("sid").asText(null) : null;
+
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.RATE_LIMITED, e.getMessage(), e);
+        } catch (HttpClientErrorException e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.REJECTED, e.getMessage(), e);
+        } catch (HttpServerErrorException e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.TRANSIENT, e.getMessage(), e);
+        } catch (ResourceAccessException e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.UNCERTAIN, e.getMessage(), e);
+        } catch (RestClientException e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.UNCERTAIN, e.getMessage(), e);
+        }
+    }
+}
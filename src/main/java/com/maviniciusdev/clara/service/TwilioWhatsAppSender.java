@@ -0,0 +1,76 @@
+package com.maviniciusdev.clara.service;
+
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.type.PhoneNumber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "whatsapp.sender", havingValue = "twilio", matchIfMissing = true)
+public class TwilioWhatsAppSender implements WhatsAppSender {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int TWILIO_RATE_LIMIT_CODE = 20429;
+
+    @Value("${twilio.whatsapp.number}")
+    private String twilioWhatsAppNumber;
+
+    // URL pública de /webhook/whatsapp/status; vazio desliga o acompanhamento de entrega
+    @Value("${twilio.status-callback-url:}")
+    private String statusCallbackUrl;
+
+    @Override
+    public String send(String to, String body) {
+        return create(Message.creator(
+                new PhoneNumber(to),
+                new PhoneNumber(twilioWhatsAppNumber),
+                body
+        ));
+    }
+
+    @Override
+    public String sendTemplate(String to, String contentSid, String contentVariables) {
+        MessageCreator creator = Message.creator(
+                new PhoneNumber(to),
+                new PhoneNumber(twilioWhatsAppNumber),
+                (String) null
+        ).setContentSid(contentSid);
+        if (contentVariables != null) {
+            creator.setContentVariables(contentVariables);
+        }
+        return create(creator);
+    }
+
+    private String create(MessageCreator creator) {
+        if (!statusCallbackUrl.isBlank()) {
+            creator.setStatusCallback(statusCallbackUrl);
+        }
+        try {
+            return creator.create().getSid();
+
+        } catch (ApiConnectionException e) {
+            throw new WhatsAppSendException(WhatsAppSendException.Kind.UNCERTAIN, e.getMessage(), e);
+        } catch (ApiException e) {
+            throw new WhatsAppSendException(classify(e), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 429 volta para a fila, 5xx é falha passageira do Twilio e o resto (4xx)
+     * é recusa definitiva, como no sender do stub.
+     */
+    private static WhatsAppSendException.Kind classify(ApiException e) {
+        if (Integer.valueOf(TOO_MANY_REQUESTS).equals(e.getStatusCode())
+                || Integer.valueOf(TWILIO_RATE_LIMIT_CODE).equals(e.getCode())) {
+            return WhatsAppSendException.Kind.RATE_LIMITED;
+        }
+        if (e.getStatusCode() != null && e.getStatusCode() >= 500) {
+            return WhatsAppSendException.Kind.TRANSIENT;
+        }
+        return WhatsAppSendException.Kind.REJECTED;
+    }
+}
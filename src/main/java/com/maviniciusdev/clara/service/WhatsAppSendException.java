@@ -0,0 +1,28 @@
+package com.maviniciusdev.clara.service;
+
+import lombok.Getter;
+
+/**
+ * Falha de envio, classificada pelo que se sabe sobre a mensagem.
+ */
+@Getter
+public class WhatsAppSendException extends RuntimeException {
+
+    public enum Kind {
+        /** Recusada por limite de taxa (429): não saiu, pode tentar de novo. */
+        RATE_LIMITED,
+        /** Erro do lado do Twilio (5xx): a mensagem não foi criada, pode tentar de novo. */
+        TRANSIENT,
+        /** Recusada de vez (número inválido, sem opt-in...): não saiu. */
+        REJECTED,
+        /** Sem resposta (rede, timeout): pode ter saído ou não. */
+        UNCERTAIN
+    }
+
+    private final Kind kind;
+
+    public WhatsAppSendException(Kind kind, String message, Throwable cause) {
+        super(message, cause);
+        this.kind = kind;
+    }
+}
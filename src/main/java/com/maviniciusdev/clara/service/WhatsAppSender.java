@@ -0,0 +1,25 @@
+package com.maviniciusdev.clara.service;
+
+/**
+ * Saída de mensagens WhatsApp. A implementação é escolhida por
+ * {@code whatsapp.sender}: {@code twilio} (padrão) ou {@code stub}, que fala
+ * com o Twilio falso local para testes de carga.
+ */
+public interface WhatsAppSender {
+
+    /**
+     * Envia uma mensagem e devolve o identificador (SID) dela.
+     *
+     * @throws WhatsAppSendException quando o envio não foi aceito
+     */
+    String send(String to, String body);
+
+    /**
+     * Envia um modelo aprovado da Content API (obrigatório fora da janela de
+     * 24h de atendimento) e devolve o SID da mensagem.
+     *
+     * @param contentVariables variáveis do modelo em JSON, ou null
+     * @throws WhatsAppSendException quando o envio não foi aceito
+     */
+    String sendTemplate(String to, String contentSid, String contentVariables);
+}
@@ -0,0 +1,150 @@
+package com.maviniciusdev.clara.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Separa o trabalho do webhook em filas por classe de custo.
+ *
+ * Respostas prontas, geração com RAG/LLM e mídia/email têm cada uma seu pool
+ * com limite de concorrência e fila própria. Um "oi" nunca espera atrás de
+ * uma geração de 20 segundos ou de um download de 10 MB: as classes caras
+ * são limitadas de forma independente e, com a fila cheia, a tarefa é
+ * recusada em vez de acumular.
+ */
+@Slf4j
+@Service
+public class WorkScheduler {
+
+    public enum Lane {
+        INSTANT("instant", 4, 200),
+        RAG("rag", 2, 50),
+        MEDIA("media", 2, 20);
+
+        private final String key;
+        private final int defaultThreads;
+        private final int defaultQueueCapacity;
+
+        Lane(String key, int defaultThreads, int defaultQueueCapacity) {
+            this.key = key;
+            this.defaultThreads = defaultThreads;
+            this.defaultQueueCapacity = defaultQueueCapacity;
+        }
+    }
+
+    private final Map<Lane, LaneExecutor> lanes = new EnumMap<>(Lane.class);
+
+    public WorkScheduler(Environment environment) {
+        for (Lane lane : Lane.values()) {
+            int threads = environment.getProperty(
+                    "whatsapp.lanes." + lane.key + ".threads", Integer.class, lane.defaultThreads);
+            int queueCapacity = environment.getProperty(
+                    "whatsapp.lanes." + lane.key + ".queue-capacity", Integer.class, lane.defaultQueueCapacity);
+
+            lanes.put(lane, new LaneExecutor(lane, threads, queueCapacity));
+            log.info("Fila {}: {} threads, capacidade {}", lane.key, threads, queueCapacity);
+        }
+    }
+
+    /**
+     * Enfileira a tarefa na classe indicada. Devolve false se a fila estiver
+     * cheia, para o chamador responder que está ocupado.
+     */
+    public boolean submit(Lane lane, Runnable task) {
+        return lanes.get(lane).submit(task);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        lanes.forEach((lane, executor) -> snapshot.put(lane.key, executor.snapshot()));
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdown());
+    }
+
+    private static class LaneExecutor {
+
+        private final Lane lane;
+        private final ThreadPoolExecutor executor;
+        private final int queueCapacity;
+
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder runNanos = new LongAdder();
+        private final LongAdder finished = new LongAdder();
+
+        LaneExecutor(Lane lane, int threads, int queueCapacity) {
+            this.lane = lane;
+            this.queueCapacity = queueCapacity;
+
+            AtomicInteger counter = new AtomicInteger();
+            int size = Math.max(1, threads);
+            this.executor = new ThreadPoolExecutor(
+                    size, size,
+                    60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    r -> {
+                        Thread thread = new Thread(r, "lane-" + lane.key + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
+
+        boolean submit(Runnable task) {
+            long enqueuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    long startedAt = System.nanoTime();
+                    waitNanos.add(startedAt - enqueuedAt);
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        failed.increment();
+                        log.error("Erro em tarefa da fila {}", lane.key, e);
+                    } finally {
+                        runNanos.add(System.nanoTime() - startedAt);
+                        finished.increment();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                log.warn("⚠️ Fila {} cheia ({} aguardando), tarefa recusada", lane.key, executor.getQueue().size());
+                return false;
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            long done = finished.sum();
+            int maxThreads = executor.getMaximumPoolSize();
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("active", executor.getActiveCount());
+            values.put("maxThreads", maxThreads);
+            values.put("utilization", (double) executor.getActiveCount() / maxThreads);
+            values.put("queued", executor.getQueue().size());
+            values.put("queueCapacity", queueCapacity);
+            values.put("completed", done);
+            values.put("failed", failed.sum());
+            values.put("rejected", rejected.sum());
+            values.put("avgWaitMillis", done > 0 ? waitNanos.sum() / 1_000_000.0 / done : 0);
+            values.put("avgRunMillis", done > 0 ? runNanos.sum() / 1_000_000.0 / done : 0);
+            return values;
+        }
+    }
+}
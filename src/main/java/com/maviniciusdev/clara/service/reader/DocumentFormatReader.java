@@ -0,0 +1,33 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.springframework.ai.document.Document;
+
+import java.io.File;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Leitor de um formato de arquivo da base de conhecimento.
+ *
+ * Os leitores entregam o conteúdo aos poucos (por página, bloco de linhas etc.)
+ * pelo {@code sink}, para que arquivos grandes não fiquem inteiros em memória.
+ */
+public interface DocumentFormatReader {
+
+    /**
+     * Nome do formato, usado nas métricas e na configuração do pool (ex.: "pdf").
+     */
+    String format();
+
+    /**
+     * Extensões aceitas, em minúsculas e sem o ponto.
+     */
+    Set<String> extensions();
+
+    /**
+     * Número de threads do pool dedicado a este formato.
+     */
+    int threads();
+
+    void read(File file, Consumer<Document> sink) throws Exception;
+}
@@ -0,0 +1,200 @@
+package com.maviniciusdev.clara.service.reader;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Registro dos leitores por extensão de arquivo.
+ *
+ * Cada formato roda no seu próprio pool limitado, para que um lote de PDFs
+ * pesados não segure a leitura dos DOCX, e acumula métricas de vazão e de
+ * memória alocada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentReaderRegistry {
+
+    private final List<DocumentFormatReader> readers;
+
+    @Value("${documents.readers.queue-capacity:64}")
+    private int queueCapacity;
+
+    private final Map<String, DocumentFormatReader> readersByExtension = new HashMap<>();
+    private final Map<String, ThreadPoolExecutor> executorsByFormat = new LinkedHashMap<>();
+    private final Map<String, FormatMetrics> metricsByFormat = new LinkedHashMap<>();
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @PostConstruct
+    public void registerReaders() {
+        for (DocumentFormatReader reader : readers) {
+            for (String extension : reader.extensions()) {
+                readersByExtension.put(extension, reader);
+            }
+
+            executorsByFormat.put(reader.format(), newExecutor(reader, queueCapacity));
+            metricsByFormat.put(reader.format(), new FormatMetrics());
+            log.debug("Leitor {} registrado para {} ({} threads)",
+                    reader.format(), reader.extensions(), reader.threads());
+        }
+
+        this.threadMXBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() ? bean : null;
+    }
+
+    public boolean isSupported(File file) {
+        return readerFor(file).isPresent();
+    }
+
+    public Optional<DocumentFormatReader> readerFor(File file) {
+        String name = file.getName().toLowerCase();
+        if (name.startsWith("~$")) {
+            return Optional.empty();
+        }
+
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(readersByExtension.get(name.substring(dot + 1)));
+    }
+
+    /**
+     * Lê o arquivo no pool do seu formato, entregando cada trecho ao {@code sink}
+     * na thread do pool. Quando a fila do formato está cheia, a leitura roda na
+     * thread chamadora, o que segura quem está produzindo arquivos.
+     */
+    public CompletableFuture<Void> read(File file, Consumer<Document> sink) {
+        DocumentFormatReader reader = readerFor(file).orElseThrow(() ->
+                new IllegalArgumentException("Formato não suportado: " + file.getName()));
+
+        FormatMetrics metrics = metricsByFormat.get(reader.format());
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            long allocatedBefore = allocatedBytes();
+            AtomicInteger emitted = new AtomicInteger();
+            long characters = 0;
+
+            try {
+                CharacterCounter counter = new CharacterCounter(sink, emitted);
+                reader.read(file, counter);
+                characters = counter.characters;
+                metrics.files.increment();
+            } catch (Exception e) {
+                metrics.failures.increment();
+                throw new CompletionException(e);
+            } finally {
+                metrics.documents.add(emitted.get());
+                metrics.characters.add(characters);
+                metrics.bytesRead.add(file.length());
+                metrics.nanos.add(System.nanoTime() - start);
+                long allocated = allocatedBytes() - allocatedBefore;
+                if (allocatedBefore >= 0 && allocated > 0) {
+                    metrics.allocatedBytes.add(allocated);
+                    metrics.maxAllocatedPerFile.accumulateAndGet(allocated, Math::max);
+                }
+            }
+        }, executorsByFormat.get(reader.format()));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        metricsByFormat.forEach((format, metrics) -> {
+            ThreadPoolExecutor executor = executorsByFormat.get(format);
+            Map<String, Object> values = metrics.snapshot();
+            values.put("activeThreads", executor.getActiveCount());
+            values.put("queued", executor.getQueue().size());
+            snapshot.put(format, values);
+        });
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorsByFormat.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static ThreadPoolExecutor newExecutor(DocumentFormatReader reader, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, reader.threads());
+        return new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "reader-" + reader.format() + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    private static class CharacterCounter implements Consumer<Document> {
+
+        private final Consumer<Document> delegate;
+        private final AtomicInteger emitted;
+        private long characters;
+
+        CharacterCounter(Consumer<Document> delegate, AtomicInteger emitted) {
+            this.delegate = delegate;
+            this.emitted = emitted;
+        }
+
+        @Override
+        public void accept(Document document) {
+            emitted.incrementAndGet();
+            characters += document.getContent() != null ? document.getContent().length() : 0;
+            delegate.accept(document);
+        }
+    }
+
+    private static class FormatMetrics {
+
+        final LongAdder files = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder documents = new LongAdder();
+        final LongAdder characters = new LongAdder();
+        final LongAdder bytesRead = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final AtomicLong maxAllocatedPerFile = new AtomicLong();
+
+        Map<String, Object> snapshot() {
+            long totalMillis = nanos.sum() / 1_000_000;
+            long bytes = bytesRead.sum();
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("files", files.sum());
+            values.put("failures", failures.sum());
+            values.put("documents", documents.sum());
+            values.put("characters", characters.sum());
+            values.put("bytesRead", bytes);
+            values.put("totalMillis", totalMillis);
+            values.put("bytesPerSecond", totalMillis > 0 ? bytes * 1000 / totalMillis : 0);
+            values.put("allocatedBytes", allocatedBytes.sum());
+            values.put("maxAllocatedBytesPerFile", maxAllocatedPerFile.get());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.tika.TikaDocumentReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Word (DOCX/DOC) via Tika. Os documentos da base são pequenos, então o
+ * conteúdo é extraído de uma vez.
+ */
+@Component
+public class DocxFormatReader implements DocumentFormatReader {
+
+    @Value("${documents.readers.docx.threads:2}")
+    private int threads;
+
+    @Override
+    public String format() {
+        return "docx";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("docx", "doc");
+    }
+
+    @Override
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void read(File file, Consumer<Document> sink) {
+        TikaDocumentReader reader = new TikaDocumentReader(new FileSystemResource(file));
+        reader.get().forEach(sink);
+    }
+}
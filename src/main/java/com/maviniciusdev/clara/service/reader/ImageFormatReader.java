@@ -0,0 +1,46 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.tika.TikaDocumentReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Imagens digitalizadas via Tika. O texto só é extraído quando o Tesseract
+ * está instalado no servidor (o Tika detecta e usa o OCR automaticamente);
+ * sem ele a imagem é ignorada com aviso de conteúdo vazio.
+ */
+@Component
+public class ImageFormatReader implements DocumentFormatReader {
+
+    @Value("${documents.readers.image.threads:1}")
+    private int threads;
+
+    @Override
+    public String format() {
+        return "image";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("jpg", "jpeg", "png", "tif", "tiff");
+    }
+
+    @Override
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void read(File file, Consumer<Document> sink) {
+        TikaDocumentReader reader = new TikaDocumentReader(new FileSystemResource(file));
+        reader.get().stream()
+                .filter(doc -> doc.getContent() != null && !doc.getContent().isBlank())
+                .forEach(sink);
+    }
+}
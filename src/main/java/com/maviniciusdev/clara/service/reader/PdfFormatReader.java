@@ -0,0 +1,65 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * PDF página a página com PDFBox. O arquivo é lido sob demanda e os objetos
+ * do PDF vão para cache em arquivo temporário, então PDFs grandes não são
+ * carregados inteiros no heap.
+ */
+@Component
+public class PdfFormatReader implements DocumentFormatReader {
+
+    @Value("${documents.readers.pdf.threads:2}")
+    private int threads;
+
+    @Override
+    public String format() {
+        return "pdf";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("pdf");
+    }
+
+    @Override
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void read(File file, Consumer<Document> sink) throws Exception {
+        try (PDDocument pdf = Loader.loadPDF(file, IOUtils.createTempFileOnlyStreamCache())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            int pages = pdf.getNumberOfPages();
+
+            for (int page = 1; page <= pages; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String text = stripper.getText(pdf);
+
+                if (text.isBlank()) {
+                    continue;
+                }
+
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("page_number", page);
+                metadata.put("total_pages", pages);
+                sink.accept(new Document(text, metadata));
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Planilhas XLSX linha a linha com o modelo de eventos SAX do POI, sem montar
+ * o workbook em memória. As linhas são agrupadas em blocos de texto.
+ */
+@Component
+public class XlsxFormatReader implements DocumentFormatReader {
+
+    @Value("${documents.readers.xlsx.threads:1}")
+    private int threads;
+
+    @Value("${documents.readers.xlsx.rows-per-document:50}")
+    private int rowsPerDocument;
+
+    @Override
+    public String format() {
+        return "xlsx";
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of("xlsx");
+    }
+
+    @Override
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void read(File file, Consumer<Document> sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    RowBlockHandler handler = new RowBlockHandler(sheets.getSheetName(), sink);
+
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, handler, formatter, false));
+                    parser.parse(new InputSource(sheet));
+
+                    handler.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Junta as células de cada linha e emite um documento a cada bloco de linhas.
+     */
+    private class RowBlockHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final String sheetName;
+        private final Consumer<Document> sink;
+        private final StringBuilder block = new StringBuilder();
+        private final StringBuilder row = new StringBuilder();
+        private int firstRow = -1;
+        private int lastRow;
+        private int rowsInBlock;
+
+        RowBlockHandler(String sheetName, Consumer<Document> sink) {
+            this.sheetName = sheetName;
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            row.setLength(0);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (row.length() == 0) {
+                return;
+            }
+
+            if (firstRow < 0) {
+                firstRow = rowNum;
+            }
+            lastRow = rowNum;
+            block.append(row).append('\n');
+
+            if (++rowsInBlock >= rowsPerDocument) {
+                flush();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null || formattedValue.isBlank()) {
+                return;
+            }
+            if (row.length() > 0) {
+                row.append(" | ");
+            }
+            row.append(formattedValue.trim());
+        }
+
+        void flush() {
+            if (block.length() == 0) {
+                return;
+            }
+
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("sheet", sheetName);
+            metadata.put("rows", (firstRow + 1) + "-" + (lastRow + 1));
+            sink.accept(new Document(block.toString(), metadata));
+
+            block.setLength(0);
+            firstRow = -1;
+            rowsInBlock = 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.maviniciusdev.clara.controller;
+
+import com.maviniciusdev.clara.service.BroadcastService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BroadcastControllerTest {
+
+    private static final String BODY = """
+            {"name": "teste", "template": "Olá{nome}", "recipients": [{"phone": "+5571000000001"}]}
+            """;
+
+    private final BroadcastService service = mock(BroadcastService.class);
+
+    @Test
+    void apiIsOffWithoutConfiguredToken() throws Exception {
+        MockMvc mvc = mvc("");
+
+        mvc.perform(post("/api/broadcasts").header("X-Admin-Token", "")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/broadcasts/1/resume")).andExpect(status().isForbidden());
+
+        verify(service, never()).createJob(any());
+        verify(service, never()).resume(any());
+    }
+
+    @Test
+    void wrongOrMissingTokenIsRejected() throws Exception {
+        MockMvc mvc = mvc("segredo");
+
+        mvc.perform(post("/api/broadcasts").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/broadcasts").header("X-Admin-Token", "segredO")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/broadcasts/1/pause").header("X-Admin-Token", "outro"))
+                .andExpect(status().isForbidden());
+
+        verify(service, never()).createJob(any());
+        verify(service, never()).pause(any());
+    }
+
+    @Test
+    void matchingTokenReachesTheService() throws Exception {
+        when(service.list()).thenReturn(List.of());
+        when(service.pause(1L)).thenReturn(true);
+        MockMvc mvc = mvc("segredo");
+
+        mvc.perform(get("/api/broadcasts").header("X-Admin-Token", "segredo")).andExpect(status().isOk());
+        mvc.perform(post("/api/broadcasts/1/pause").header("X-Admin-Token", "segredo")).andExpect(status().isOk());
+
+        verify(service).pause(1L);
+    }
+
+    private MockMvc mvc(String adminToken) {
+        BroadcastController controller = new BroadcastController(service);
+        ReflectionTestUtils.setField(controller, "adminToken", adminToken);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+}
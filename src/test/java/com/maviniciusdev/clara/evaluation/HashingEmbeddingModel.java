@@ -0,0 +1,76 @@
+package com.maviniciusdev.clara.evaluation;
+
+import com.maviniciusdev.clara.service.LexicalOverlapReranker;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Embedding determinístico e local para testes: bag-of-words com "hashing
+ * trick" sobre termos normalizados (sem acento, prefixo de 6 letras como
+ * radical grosseiro). Não substitui o nomic-embed-text, mas mantém a
+ * comparação entre configurações reprodutível e offline.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> texts = request.getInstructions();
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(embed(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        for (String term : terms(text)) {
+            int hash = term.hashCode();
+            int index = Math.floorMod(hash, dimensions);
+            vector[index] += (hash & 0x40000000) == 0 ? 1f : -1f;
+        }
+
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= inverse;
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Termos normalizados usados tanto pelo embedding quanto pela busca lexical
+     * do modo híbrido: os mesmos do re-ranker de produção.
+     */
+    public static List<String> terms(String text) {
+        return LexicalOverlapReranker.terms(text);
+    }
+}
@@ -0,0 +1,284 @@
+package com.maviniciusdev.clara.evaluation;
+
+import com.maviniciusdev.clara.service.LexicalOverlapReranker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.tika.TikaDocumentReader;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Avaliação offline de qualidade x latência da recuperação sobre os
+ * documentos de documentos-sesi.
+ *
+ * Cada configuração (tamanho de chunk, topK, threshold e modo de busca) é
+ * executada contra um vector store local semeado com embeddings
+ * determinísticos, e o relatório mostra recall@k, MRR e latência por
+ * consulta lado a lado. A relevância é por documento: uma pergunta acerta
+ * se algum chunk de uma das fontes esperadas aparece no top-k.
+ *
+ * O relatório sai no log e em target/retrieval-evaluation.txt. Fica fora do
+ * {@code mvn test} padrão (lê o corpus com Tika e varre todas as
+ * configurações); rode com {@code mvn test -Pevaluation}.
+ */
+@Slf4j
+@Tag("evaluation")
+class RetrievalEvaluationTest {
+
+    private static final Path CORPUS = Paths.get("src/main/resources/documentos-sesi");
+    private static final String QUESTIONS = "/evaluation/perguntas-sesi.csv";
+    private static final Path REPORT = Paths.get("target/retrieval-evaluation.txt");
+
+    private static final int[] CHUNK_SIZES = {200, 500, 800};
+    private static final int[] TOP_KS = {2, 4, 8};
+    private static final double[] THRESHOLDS = {0.0, 0.3, 0.6};
+
+    private static final int OVERFETCH = 3;
+    private static final int RRF_K = 60;
+    private static final int RERANK_CANDIDATES = 20;
+
+    private final LexicalOverlapReranker reranker = new LexicalOverlapReranker(0.5);
+
+    enum Mode { DENSE, FILTERED, HYBRID, RERANK }
+
+    record LabelledQuestion(String question, Set<String> expectedSources) {}
+
+    record Result(Mode mode, int chunkSize, int topK, double threshold,
+                  double recall, double mrr, double p50Millis, double p95Millis, double avgContextChars) {}
+
+    @Test
+    void compareRetrievalConfigurations() throws IOException {
+        List<LabelledQuestion> questions = loadQuestions();
+        List<Document> corpus = loadCorpus();
+        HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(512);
+
+        assertThat(questions).isNotEmpty();
+        assertThat(corpus).isNotEmpty();
+
+        List<Result> results = new ArrayList<>();
+        for (int chunkSize : CHUNK_SIZES) {
+            SimpleVectorStore store = new SimpleVectorStore(embeddingModel);
+            store.add(split(corpus, chunkSize));
+
+            for (Mode mode : Mode.values()) {
+                for (int topK : TOP_KS) {
+                    for (double threshold : THRESHOLDS) {
+                        results.add(evaluate(store, questions, mode, chunkSize, topK, threshold));
+                    }
+                }
+            }
+        }
+
+        String report = formatReport(results, questions.size());
+        log.info("\n{}", report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report, StandardCharsets.UTF_8);
+
+        for (Result result : results) {
+            assertThat(result.recall()).isBetween(0.0, 1.0);
+            assertThat(result.mrr()).isBetween(0.0, result.recall());
+        }
+        assertThat(results.stream().mapToDouble(Result::recall).max().orElse(0)).isGreaterThan(0.5);
+    }
+
+    private Result evaluate(SimpleVectorStore store, List<LabelledQuestion> questions,
+                            Mode mode, int chunkSize, int topK, double threshold) {
+        int hits = 0;
+        double reciprocalRanks = 0;
+        long contextChars = 0;
+        double[] latencies = new double[questions.size()];
+
+        for (int q = 0; q < questions.size(); q++) {
+            LabelledQuestion question = questions.get(q);
+
+            long start = System.nanoTime();
+            List<Document> retrieved = retrieve(store, mode, question.question(), topK, threshold);
+            latencies[q] = (System.nanoTime() - start) / 1_000_000.0;
+
+            for (int rank = 0; rank < retrieved.size(); rank++) {
+                Object source = retrieved.get(rank).getMetadata().get("source");
+                if (question.expectedSources().contains(String.valueOf(source))) {
+                    hits++;
+                    reciprocalRanks += 1.0 / (rank + 1);
+                    break;
+                }
+            }
+            contextChars += retrieved.stream().mapToInt(doc -> doc.getContent().length()).sum();
+        }
+
+        Arrays.sort(latencies);
+        return new Result(mode, chunkSize, topK, threshold,
+                (double) hits / questions.size(),
+                reciprocalRanks / questions.size(),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.95),
+                (double) contextChars / questions.size());
+    }
+
+    private List<Document> retrieve(SimpleVectorStore store, Mode mode, String question, int topK, double threshold) {
+        return switch (mode) {
+            case DENSE -> store.similaritySearch(SearchRequest.query(question)
+                    .withTopK(topK)
+                    .withSimilarityThreshold(threshold));
+
+            // Filtro por categoria inferida da pergunta; sem categoria, cai na busca densa
+            case FILTERED -> {
+                String category = inferCategory(question);
+                List<Document> candidates = store.similaritySearch(SearchRequest.query(question)
+                        .withTopK(category == null ? topK : topK * OVERFETCH)
+                        .withSimilarityThreshold(threshold));
+                yield category == null ? candidates : candidates.stream()
+                        .filter(doc -> category.equals(doc.getMetadata().get("category")))
+                        .limit(topK)
+                        .toList();
+            }
+
+            // Reciprocal rank fusion entre o ranking denso e a sobreposição de termos
+            case HYBRID -> {
+                List<Document> candidates = store.similaritySearch(SearchRequest.query(question)
+                        .withTopK(topK * OVERFETCH)
+                        .withSimilarityThreshold(threshold));
+                yield fuse(question, candidates, topK);
+            }
+
+            // Dois estágios, como o RAGService com rag.rerank.enabled=true
+            case RERANK -> {
+                List<Document> candidates = store.similaritySearch(SearchRequest.query(question)
+                        .withTopK(Math.max(RERANK_CANDIDATES, topK))
+                        .withSimilarityThreshold(threshold));
+                yield reranker.rerank(question, candidates, topK);
+            }
+        };
+    }
+
+    private List<Document> fuse(String question, List<Document> denseRanking, int topK) {
+        Set<String> queryTerms = new HashSet<>(HashingEmbeddingModel.terms(question));
+
+        Map<Document, Double> lexicalScores = new HashMap<>();
+        for (Document doc : denseRanking) {
+            Set<String> docTerms = new HashSet<>(HashingEmbeddingModel.terms(doc.getContent()));
+            long overlap = queryTerms.stream().filter(docTerms::contains).count();
+            lexicalScores.put(doc, queryTerms.isEmpty() ? 0 : (double) overlap / queryTerms.size());
+        }
+
+        List<Document> lexicalRanking = new ArrayList<>(denseRanking);
+        lexicalRanking.sort(Comparator.comparingDouble(lexicalScores::get).reversed());
+
+        Map<Document, Double> fused = new HashMap<>();
+        for (int rank = 0; rank < denseRanking.size(); rank++) {
+            fused.merge(denseRanking.get(rank), 1.0 / (RRF_K + rank + 1), Double::sum);
+            fused.merge(lexicalRanking.get(rank), 1.0 / (RRF_K + rank + 1), Double::sum);
+        }
+
+        return denseRanking.stream()
+                .sorted(Comparator.comparingDouble(fused::get).reversed())
+                .limit(topK)
+                .toList();
+    }
+
+    /**
+     * Categoria pelas palavras da pergunta. Siglas casam só como palavra
+     * inteira ("aso" não pode casar com "caso", "passo" ou "isso").
+     */
+    private String inferCategory(String question) {
+        Set<String> terms = new HashSet<>(HashingEmbeddingModel.terms(question));
+        if (terms.contains("pcmso") || terms.contains("aso")) return "PCMSO";
+        if (terms.contains("pgr")) return "PGR";
+        if (hasPrefix(terms, "viva")) return "PRODUTOS";
+        if (terms.contains("m1") || hasPrefix(terms, "planil")) return "PROCESSOS";
+        if (hasPrefix(terms, "exame")) return "EXAMES";
+        return null;
+    }
+
+    private static boolean hasPrefix(Set<String> terms, String prefix) {
+        return terms.stream().anyMatch(term -> term.startsWith(prefix));
+    }
+
+    private List<Document> split(List<Document> corpus, int chunkSize) {
+        TokenTextSplitter splitter = new TokenTextSplitter(chunkSize, 100, 5, 10000, true);
+        List<Document> chunks = new ArrayList<>();
+        for (Document doc : corpus) {
+            chunks.addAll(splitter.split(doc));
+        }
+        return chunks;
+    }
+
+    private List<Document> loadCorpus() throws IOException {
+        List<Document> documents = new ArrayList<>();
+        try (Stream<Path> files = Files.find(CORPUS, Integer.MAX_VALUE,
+                (path, attrs) -> attrs.isRegularFile() && path.toString().endsWith(".docx"))) {
+
+            for (Path file : files.sorted().toList()) {
+                for (Document doc : new TikaDocumentReader(new FileSystemResource(file)).get()) {
+                    doc.getMetadata().put("source", file.getFileName().toString());
+                    doc.getMetadata().put("category", file.getParent().getFileName().toString().toUpperCase());
+                    documents.add(doc);
+                }
+            }
+        }
+        return documents;
+    }
+
+    private List<LabelledQuestion> loadQuestions() throws IOException {
+        String csv = new String(
+                Objects.requireNonNull(getClass().getResourceAsStream(QUESTIONS)).readAllBytes(),
+                StandardCharsets.UTF_8);
+
+        return csv.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> line.split(";"))
+                .map(columns -> new LabelledQuestion(columns[0].trim(), Set.of(columns[1].trim().split("\\|"))))
+                .toList();
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String formatReport(List<Result> results, int questionCount) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Avaliação de recuperação (%d perguntas)%n", questionCount));
+        report.append(String.format("%-9s %6s %5s %9s %9s %7s %8s %8s %11s%n",
+                "modo", "chunk", "topK", "threshold", "recall@k", "MRR", "p50 ms", "p95 ms", "ctx chars"));
+
+        results.stream()
+                .sorted(Comparator.comparingDouble(Result::recall).reversed()
+                        .thenComparing(Comparator.comparingDouble(Result::mrr).reversed())
+                        .thenComparingDouble(Result::p50Millis))
+                .forEach(r -> report.append(String.format(Locale.ROOT,
+                        "%-9s %6d %5d %9.2f %9.3f %7.3f %8.3f %8.3f %11.0f%n",
+                        r.mode(), r.chunkSize(), r.topK(), r.threshold(),
+                        r.recall(), r.mrr(), r.p50Millis(), r.p95Millis(), r.avgContextChars())));
+
+        Result current = results.stream()
+                .filter(r -> r.mode() == Mode.DENSE && r.chunkSize() == 500 && r.topK() == 4 && r.threshold() == 0.6)
+                .findFirst()
+                .orElse(null);
+        if (current != null) {
+            report.append(String.format(Locale.ROOT,
+                    "%nConfiguração atual do RAGService (dense, 500, topK 4, threshold 0.6): recall@k %.3f, MRR %.3f%n",
+                    current.recall(), current.mrr()));
+        }
+
+        return report.toString();
+    }
+}
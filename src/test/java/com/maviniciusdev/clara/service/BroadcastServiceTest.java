@@ -0,0 +1,337 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maviniciusdev.clara.dto.BroadcastRequest;
+import com.maviniciusdev.clara.entity.BroadcastJob;
+import com.maviniciusdev.clara.entity.BroadcastRecipient;
+import com.maviniciusdev.clara.entity.BroadcastRecipient.Status;
+import com.maviniciusdev.clara.repository.BroadcastJobRepository;
+import com.maviniciusdev.clara.repository.BroadcastRecipientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Máquina de estados do envio em massa (reserva, checkpoint e retomada)
+ * contra o banco de verdade, com um WhatsAppSender falso. Sem transação de
+ * teste: o job roda em outra thread e precisa ver o que foi gravado.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BroadcastServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private BroadcastJobRepository jobRepository;
+
+    @Autowired
+    private BroadcastRecipientRepository recipientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final StubSender sender = new StubSender();
+    private BroadcastService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (service != null) {
+            service.shutdown();
+        }
+        recipientRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    void sendingRecipientBecomesUnknownOnRestartAndIsNotResent() {
+        BroadcastJob job = new BroadcastJob();
+        job.setName("queda no meio");
+        job.setTemplate("Olá{nome}!");
+        job.setStatus(BroadcastJob.Status.RUNNING);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setTotalRecipients(3);
+        Long jobId = jobRepository.save(job).getId();
+
+        BroadcastRecipient inFlight = recipient(jobId, "whatsapp:+5571000000001", Status.SENDING, 1);
+        recipient(jobId, "whatsapp:+5571000000002", Status.PENDING, 0);
+        recipient(jobId, "whatsapp:+5571000000003", Status.PENDING, 0);
+
+        newService(3, 100).resumeInterruptedJobs();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        assertThat(recipientRepository.findById(inFlight.getId()).orElseThrow().getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(countByStatus(jobId)).containsEntry(Status.SENT, 2L).containsEntry(Status.UNKNOWN, 1L);
+        assertThat(sender.calls).containsExactlyInAnyOrder("whatsapp:+5571000000002", "whatsapp:+5571000000003");
+    }
+
+    @Test
+    void rateLimitedRecipientGoesBackToPendingUntilMaxAttempts() {
+        AtomicInteger secondPhoneCalls = new AtomicInteger();
+        sender.behaviour = to -> {
+            if (to.endsWith("01") || (to.endsWith("02") && secondPhoneCalls.incrementAndGet() == 1)) {
+                throw new WhatsAppSendException(WhatsAppSendException.Kind.RATE_LIMITED, "429", null);
+            }
+            return "SM" + to;
+        };
+
+        Long jobId = newService(3, 100)
+                .createJob(request("+5571000000001", "+5571000000002"))
+                .getId();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        BroadcastRecipient alwaysLimited = find(jobId, "whatsapp:+5571000000001");
+        assertThat(alwaysLimited.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(alwaysLimited.getAttempts()).isEqualTo(3);
+
+        BroadcastRecipient limitedOnce = find(jobId, "whatsapp:+5571000000002");
+        assertThat(limitedOnce.getStatus()).isEqualTo(Status.SENT);
+        assertThat(limitedOnce.getAttempts()).isEqualTo(2);
+        assertThat(limitedOnce.getMessageSid()).isEqualTo("SMwhatsapp:+5571000000002");
+
+        assertThat(sender.calls).filteredOn(to -> to.endsWith("01")).hasSize(3);
+    }
+
+    @Test
+    void serverErrorIsRetriedInsteadOfFailingTheRecipient() {
+        AtomicInteger calls = new AtomicInteger();
+        sender.behaviour = to -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new WhatsAppSendException(WhatsAppSendException.Kind.TRANSIENT, "503 Service Unavailable", null);
+            }
+            return "SM" + to;
+        };
+
+        Long jobId = newService(3, 100).createJob(request("+5571000000001")).getId();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        BroadcastRecipient recipient = find(jobId, "whatsapp:+5571000000001");
+        assertThat(recipient.getStatus()).isEqualTo(Status.SENT);
+        assertThat(recipient.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void pausedJobStopsAfterInFlightMessageAndResumesWithoutDuplicates() throws InterruptedException {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        sender.behaviour = to -> {
+            if (sender.calls.size() == 1) {
+                firstSendStarted.countDown();
+                awaitLatch(releaseFirstSend);
+            }
+            return "SM" + to;
+        };
+
+        BroadcastService service = newService(3, 1);
+        Long jobId = service.createJob(request("+5571000000001", "+5571000000002", "+5571000000003")).getId();
+
+        assertThat(firstSendStarted.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        assertThat(service.pause(jobId)).isTrue();
+        releaseFirstSend.countDown();
+
+        // A execução termina depois de gravar a mensagem que já estava saindo
+        await().atMost(TIMEOUT).until(() -> !service.status(jobId).orElseThrow().containsKey("messagesPerSecond"));
+        assertThat(jobRepository.findById(jobId).orElseThrow().getStatus()).isEqualTo(BroadcastJob.Status.PAUSED);
+        assertThat(countByStatus(jobId)).containsEntry(Status.SENT, 1L).containsEntry(Status.PENDING, 2L);
+        assertThat(sender.calls).hasSize(1);
+
+        assertThat(service.resume(jobId)).isTrue();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        assertThat(countByStatus(jobId)).containsEntry(Status.SENT, 3L).containsEntry(Status.PENDING, 0L);
+        assertThat(sender.calls).doesNotHaveDuplicates().hasSize(3);
+    }
+
+    @Test
+    void unexpectedSenderExceptionMarksRecipientUnknownAndJobStillCompletes() {
+        sender.behaviour = to -> {
+            if (to.endsWith("02")) {
+                throw new IllegalStateException("Authentication Error - invalid username");
+            }
+            return "SM" + to;
+        };
+
+        Long jobId = newService(3, 100)
+                .createJob(request("+5571000000001", "+5571000000002", "+5571000000003"))
+                .getId();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        BroadcastRecipient failed = find(jobId, "whatsapp:+5571000000002");
+        assertThat(failed.getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(failed.getError()).contains("Authentication Error");
+        assertThat(countByStatus(jobId))
+                .containsEntry(Status.SENT, 2L)
+                .containsEntry(Status.UNKNOWN, 1L)
+                .containsEntry(Status.SENDING, 0L);
+    }
+
+    @Test
+    void templateJobSendsContentSidWithPerRecipientVariables() {
+        BroadcastRequest request = request("+5571000000001");
+        request.setTemplate(null);
+        request.setContentSid("HX0123456789abcdef0123456789abcdef");
+        request.setContentVariables(new TreeMap<>(Map.of("1", "{nome}", "2", "30/11")));
+
+        Long jobId = newService(3, 100).createJob(request).getId();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        assertThat(find(jobId, "whatsapp:+5571000000001").getStatus()).isEqualTo(Status.SENT);
+        assertThat(sender.templates).containsExactly(
+                "HX0123456789abcdef0123456789abcdef {\"1\":\"Maria\",\"2\":\"30/11\"}");
+        assertThat(sender.calls).hasSize(1);
+    }
+
+    @Test
+    void invalidContentSidIsRejected() {
+        BroadcastRequest request = request("+5571000000001");
+        request.setContentSid("modelo-renovacao");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> newService(3, 100).createJob(request));
+        assertThat(jobRepository.count()).isZero();
+    }
+
+    @Test
+    void renderedBodyOverTheLimitIsRejected() {
+        // O modelo cabe no limite, mas com o nome substituído passa dele
+        BroadcastRequest request = request("+5571000000001");
+        request.getRecipients().get(0).setName("Mariazinha Souza");
+        request.setTemplate("x".repeat(MessageSplitter.MAX_MESSAGE_LENGTH - 6) + "{nome}");
+
+        assertThat(request.getTemplate().length()).isLessThanOrEqualTo(MessageSplitter.MAX_MESSAGE_LENGTH);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> newService(3, 100).createJob(request))
+                .withMessageContaining("whatsapp:+5571000000001");
+        assertThat(jobRepository.count()).isZero();
+    }
+
+    @Test
+    void deliveryCallbackIsRecordedAndDoesNotGoBackwards() {
+        BroadcastService service = newService(3, 100);
+        Long jobId = service.createJob(request("+5571000000001", "+5571000000002")).getId();
+        awaitStatus(jobId, BroadcastJob.Status.COMPLETED);
+
+        assertThat(service.recordDeliveryStatus("SMwhatsapp:+5571000000001", "delivered", null)).isTrue();
+        assertThat(service.recordDeliveryStatus("SMwhatsapp:+5571000000001", "sent", null)).isTrue();
+        assertThat(service.recordDeliveryStatus("SMwhatsapp:+5571000000002", "undelivered", "63016")).isTrue();
+        assertThat(service.recordDeliveryStatus("SMoutra-conversa", "delivered", null)).isFalse();
+
+        assertThat(find(jobId, "whatsapp:+5571000000001").getDeliveryStatus()).isEqualTo("delivered");
+        BroadcastRecipient undelivered = find(jobId, "whatsapp:+5571000000002");
+        assertThat(undelivered.getStatus()).isEqualTo(Status.SENT);
+        assertThat(undelivered.getDeliveryStatus()).isEqualTo("undelivered");
+        assertThat(undelivered.getError()).isEqualTo("Twilio 63016");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> delivery = (Map<String, Long>) service.status(jobId).orElseThrow().get("delivery");
+        assertThat(delivery).containsEntry("delivered", 1L).containsEntry("undelivered", 1L);
+    }
+
+    @Test
+    void requestWithoutAnyPhoneIsRejected() {
+        BroadcastRequest request = request("  ", "");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> newService(3, 100).createJob(request));
+        assertThat(jobRepository.count()).isZero();
+    }
+
+    private BroadcastService newService(int maxAttempts, int pageSize) {
+        service = new BroadcastService(jobRepository, recipientRepository, sender,
+                new TransactionTemplate(transactionManager), new ObjectMapper(),
+                1000, 1, pageSize, maxAttempts, 0, true, 5000);
+        return service;
+    }
+
+    private BroadcastRecipient recipient(Long jobId, String phone, Status status, int attempts) {
+        BroadcastRecipient recipient = new BroadcastRecipient();
+        recipient.setJobId(jobId);
+        recipient.setPhone(phone);
+        recipient.setStatus(status);
+        recipient.setAttempts(attempts);
+        recipient.setUpdatedAt(LocalDateTime.now());
+        return recipientRepository.save(recipient);
+    }
+
+    private static BroadcastRequest request(String... phones) {
+        List<BroadcastRequest.Recipient> recipients = new ArrayList<>();
+        for (String phone : phones) {
+            BroadcastRequest.Recipient recipient = new BroadcastRequest.Recipient();
+            recipient.setPhone(phone);
+            recipient.setName("Maria Souza");
+            recipients.add(recipient);
+        }
+        BroadcastRequest request = new BroadcastRequest();
+        request.setName("renovação PCMSO");
+        request.setTemplate("Olá{nome}, seu PCMSO vence este mês.");
+        request.setRecipients(recipients);
+        return request;
+    }
+
+    private void awaitStatus(Long jobId, BroadcastJob.Status status) {
+        await().atMost(TIMEOUT).until(() -> jobRepository.findById(jobId).orElseThrow().getStatus() == status);
+    }
+
+    private BroadcastRecipient find(Long jobId, String phone) {
+        return recipientRepository.findAll().stream()
+                .filter(r -> r.getJobId().equals(jobId) && r.getPhone().equals(phone))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Map<Status, Long> countByStatus(Long jobId) {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counts.put(status, 0L);
+        }
+        recipientRepository.findAll().stream()
+                .filter(r -> r.getJobId().equals(jobId))
+                .forEach(r -> counts.merge(r.getStatus(), 1L, Long::sum));
+        return counts;
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StubSender implements WhatsAppSender {
+
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final List<String> templates = new CopyOnWriteArrayList<>();
+        volatile Function<String, String> behaviour = to -> "SM" + to;
+
+        @Override
+        public String send(String to, String body) {
+            calls.add(to);
+            return behaviour.apply(to);
+        }
+
+        @Override
+        public String sendTemplate(String to, String contentSid, String contentVariables) {
+            templates.add(contentSid + " " + contentVariables);
+            return send(to, null);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.maviniciusdev.clara.service;
+
+import com.sun.net.httpserver.HttpServer;
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Quem decide departamento e caixa de email: o conteúdo quando o roteamento
+ * classifica o documento, o tipo de arquivo e a caixa padrão quando não.
+ */
+class DocumentHandlerServiceTest {
+
+    private static final String DEFAULT_MAILBOX = "tecnico@sesi.test";
+
+    @TempDir
+    Path uploadDir;
+
+    private HttpServer mediaServer;
+    private JavaMailSender mailSender;
+    private DocumentRoutingService routing;
+    private DocumentHandlerService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        // Faz o papel da URL de mídia do Twilio
+        mediaServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mediaServer.createContext("/media", exchange -> {
+            byte[] body = "%PDF-1.4 conteúdo".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        mediaServer.start();
+
+        mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+        ObjectProvider<JavaMailSender> mailSenderProvider = mock(ObjectProvider.class);
+        when(mailSenderProvider.getObject()).thenReturn(mailSender);
+        routing = mock(DocumentRoutingService.class);
+
+        service = new DocumentHandlerService(mailSenderProvider, routing);
+        ReflectionTestUtils.setField(service, "uploadPath", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "destinationEmail", DEFAULT_MAILBOX);
+        ReflectionTestUtils.setField(service, "twilioAccountSid", "AC-teste");
+        ReflectionTestUtils.setField(service, "twilioAuthToken", "token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaServer.stop(0);
+    }
+
+    @Test
+    void classifiedDocumentGoesToTheCategoryMailbox() throws Exception {
+        when(routing.route(any(), eq("application/pdf"))).thenReturn(Optional.of(
+                new DocumentRoutingService.Route("PCMSO", "Saúde Ocupacional", "saude@sesi.test", 12)));
+
+        String reply = service.processDocument("whatsapp:+5571000000001", "Maria", mediaUrl(), "application/pdf");
+
+        assertThat(reply).contains("Encaminhei para: Saúde Ocupacional");
+        assertThat(sentTo()).isEqualTo("saude@sesi.test");
+    }
+
+    @Test
+    void unclassifiedPdfFallsBackToMimeDepartmentAndDefaultMailbox() throws Exception {
+        when(routing.route(any(), any())).thenReturn(Optional.empty());
+
+        String reply = service.processDocument("whatsapp:+5571000000001", "Maria", mediaUrl(), "application/pdf");
+
+        assertThat(reply).contains("Encaminhei para: Documentação");
+        assertThat(sentTo()).isEqualTo(DEFAULT_MAILBOX);
+    }
+
+    @Test
+    void unclassifiedImageFallsBackToTechnicalTeam() throws Exception {
+        when(routing.route(any(), any())).thenReturn(Optional.empty());
+
+        String reply = service.processDocument("whatsapp:+5571000000001", "Maria", mediaUrl(), "image/png");
+
+        assertThat(reply).contains("Encaminhei para: Equipe Técnica");
+        assertThat(sentTo()).isEqualTo(DEFAULT_MAILBOX);
+    }
+
+    private String mediaUrl() {
+        return "http://127.0.0.1:" + mediaServer.getAddress().getPort() + "/media";
+    }
+
+    private String sentTo() throws Exception {
+        ArgumentCaptor<MimeMessage> message = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(mailSender).send(message.capture());
+        return message.getValue().getRecipients(Message.RecipientType.TO)[0].toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.maviniciusdev.clara.service;
+
+import com.maviniciusdev.clara.service.reader.DocumentReaderRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reindexação e remoção de um arquivo só, com vector store, tabela e
+ * leitores falsos: quais chunks são gravados e quais são apagados.
+ */
+class DocumentIndexingServiceTest {
+
+    @TempDir
+    Path documents;
+
+    private VectorStore vectorStore;
+    private JdbcTemplate jdbcTemplate;
+    private DocumentReaderRegistry readerRegistry;
+    private DocumentIndexingService service;
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vectorStore = mock(VectorStore.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        readerRegistry = mock(DocumentReaderRegistry.class);
+        when(readerRegistry.isSupported(any())).thenReturn(true);
+
+        KnowledgePartition partition = new KnowledgePartition("default", documents.toAbsolutePath().normalize(),
+                "public", "vector_store", vectorStore, Set.of(), Set.of());
+        KnowledgePartitionRegistry partitions = new KnowledgePartitionRegistry(List.of(partition));
+        service = new DocumentIndexingService(partitions, jdbcTemplate, readerRegistry, mock(IndexStatistics.class));
+
+        file = Files.writeString(documents.resolve("pcmso.txt"), "PCMSO").toFile();
+    }
+
+    @Test
+    void removeFileDeletesChunksKnownInMemoryAndRowsOfOlderRuns() {
+        // Na primeira reindexação a tabela está vazia; depois aparece uma linha de uma execução antiga
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(file.getPath())))
+                .thenReturn(List.of(), List.of("linha-de-execucao-antiga"));
+        readerEmits("Programa de controle médico de saúde ocupacional, versão 1.");
+
+        service.reindexFile(file);
+        List<String> written = addedIds();
+
+        service.removeFile(file);
+
+        List<String> expected = new ArrayList<>(written);
+        expected.add("linha-de-execucao-antiga");
+        assertThat(deletedIds()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void failedReReadKeepsTheChunksAlreadyIndexed() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(file.getPath()))).thenReturn(List.of());
+        readerEmits("Programa de controle médico de saúde ocupacional, versão 1.");
+        service.reindexFile(file);
+        List<String> written = addedIds();
+
+        // doReturn: when(...) chamaria a resposta anterior com um sink nulo
+        doReturn(CompletableFuture.failedFuture(new IOException("arquivo pela metade")))
+                .when(readerRegistry).read(eq(file), any());
+        service.reindexFile(file);
+
+        verify(vectorStore, times(1)).add(any());
+        verify(vectorStore, never()).delete(any());
+
+        // Os ids da versão anterior continuam conhecidos para a próxima remoção
+        service.removeFile(file);
+        assertThat(deletedIds()).containsExactlyInAnyOrderElementsOf(written);
+    }
+
+    @Test
+    void reReadWithoutContentKeepsTheChunksAlreadyIndexed() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(file.getPath()))).thenReturn(List.of());
+        readerEmits("Programa de controle médico de saúde ocupacional, versão 1.");
+        service.reindexFile(file);
+
+        doReturn(CompletableFuture.completedFuture(null)).when(readerRegistry).read(eq(file), any());
+        service.reindexFile(file);
+
+        verify(vectorStore, times(1)).add(any());
+        verify(vectorStore, never()).delete(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readerEmits(String text) {
+        when(readerRegistry.read(eq(file), any())).thenAnswer(invocation -> {
+            Consumer<Document> sink = invocation.getArgument(1);
+            sink.accept(new Document(text));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> addedIds() {
+        ArgumentCaptor<List<Document>> added = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore).add(added.capture());
+        assertThat(added.getValue()).isNotEmpty();
+        return added.getValue().stream().map(Document::getId).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> deletedIds() {
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore).delete(deleted.capture());
+        return deleted.getValue();
+    }
+}
@@ -0,0 +1,287 @@
+package com.maviniciusdev.clara.service;
+
+import com.maviniciusdev.clara.service.DocumentRoutingService.Route;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class DocumentRoutingServiceTest {
+
+    private static final long MAX_BYTES = 10L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentRoutingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void specificPhrasesOutweighLooseAcronyms() {
+        Optional<Route> route = routing().classify("""
+                PROGRAMA DE CONTROLE MÉDICO DE SAÚDE OCUPACIONAL
+                Médico coordenador: Dr. Fulano. Exames previstos conforme NR-07.
+                Ver também o PGR da empresa.
+                """);
+
+        assertThat(route).isPresent();
+        assertThat(route.get().category()).isEqualTo("PCMSO");
+        assertThat(route.get().department()).isEqualTo("Saúde Ocupacional");
+        // "controle medico de saude ocupacional" (5) + "programa de controle medico" (4)
+        // + "medico coordenador" (2) + "nr-07" (1)
+        assertThat(route.get().score()).isEqualTo(12);
+    }
+
+    @Test
+    void scoreBelowMinimumFallsBackToMimeRouting() {
+        DocumentRoutingService routing = routing(new MockEnvironment(), 2);
+
+        assertThat(routing.classify("Segue o ASO.")).isEmpty();
+        assertThat(routing.classify("Segue o ASO e o hemograma."))
+                .hasValueSatisfying(route -> {
+                    assertThat(route.category()).isEqualTo("EXAMES");
+                    assertThat(route.score()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void termsOnlyMatchWholeWords() {
+        DocumentRoutingService routing = routing(new MockEnvironment(), 1);
+
+        // "aso" dentro de caso/passo/isso, "apto" dentro de "inaptos", "pgr" dentro de "pgrs2"
+        assertThat(routing.classify("Neste caso, o próximo passo é isso. Candidatos inaptos. pgrs2")).isEmpty();
+        assertThat(routing.classify("Caso: ASO.")).hasValueSatisfying(route ->
+                assertThat(route.category()).isEqualTo("EXAMES"));
+    }
+
+    @Test
+    void accentsCaseAndPunctuationAreNormalized() {
+        Optional<Route> route = routing().classify("ATESTADO DE SAÚDE OCUPACIONAL; apto.");
+
+        assertThat(route).hasValueSatisfying(r -> {
+            assertThat(r.category()).isEqualTo("EXAMES");
+            assertThat(r.score()).isEqualTo(5);
+        });
+    }
+
+    @Test
+    void repeatedTermsAreCountedEachTime() {
+        Optional<Route> route = routing().classify("boleto boleto boleto");
+
+        assertThat(route).hasValueSatisfying(r -> {
+            assertThat(r.category()).isEqualTo("PROCESSOS");
+            assertThat(r.score()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void mailboxAndDepartmentComeFromConfiguration() {
+        service = new DocumentRoutingService(new MockEnvironment()
+                .withProperty("documents.routing.mailbox.PGR", "seguranca@sesi.test")
+                .withProperty("documents.routing.department.PGR", "SST"),
+                5, 20_000, 10L * 1024 * 1024, 15_000, 2, false, "geral@sesi.test", 2, 16);
+        DocumentRoutingService routing = service;
+
+        assertThat(routing.classify("Programa de Gerenciamento de Riscos - inventário de riscos"))
+                .hasValueSatisfying(route -> {
+                    assertThat(route.category()).isEqualTo("PGR");
+                    assertThat(route.mailbox()).isEqualTo("seguranca@sesi.test");
+                    assertThat(route.department()).isEqualTo("SST");
+                });
+        assertThat(routing.classify("Nota fiscal e boleto em anexo"))
+                .hasValueSatisfying(route -> assertThat(route.mailbox()).isEqualTo("geral@sesi.test"));
+    }
+
+    @Test
+    void textWithoutVocabularyIsNotClassified() {
+        assertThat(routing().classify("Bom dia, tudo bem?")).isEmpty();
+        assertThat(routing().classify("")).isEmpty();
+    }
+
+    @Test
+    void onlyTheFirstMaxPagesOfAPdfAreRead() throws IOException {
+        // Páginas 1-2 falam de boleto; o PCMSO só aparece da página 3 em diante
+        List<String> pages = List.of(
+                "Segue boleto e nota fiscal", "Segue boleto e nota fiscal",
+                "PCMSO medico coordenador PCMSO", "PCMSO medico coordenador PCMSO",
+                "PCMSO medico coordenador PCMSO", "PCMSO medico coordenador PCMSO");
+        File file = pdf("paginas.pdf", pages);
+
+        service = new DocumentRoutingService(new MockEnvironment(),
+                2, 20_000, MAX_BYTES, 15_000, 2, false, "tecnico@sesibahia.com.br", 1, 4);
+        assertThat(service.route(file, "application/pdf")).hasValueSatisfying(route -> {
+            assertThat(route.category()).isEqualTo("PROCESSOS");
+            // (boleto 1 + nota fiscal 2) x 2 páginas
+            assertThat(route.score()).isEqualTo(6);
+        });
+
+        service.shutdown();
+        service = new DocumentRoutingService(new MockEnvironment(),
+                10, 20_000, MAX_BYTES, 15_000, 2, false, "tecnico@sesibahia.com.br", 1, 4);
+        assertThat(service.route(file, "application/pdf"))
+                .hasValueSatisfying(route -> assertThat(route.category()).isEqualTo("PCMSO"));
+    }
+
+    @Test
+    void extractedTextIsCutAtMaxChars() throws IOException {
+        File file = pdf("longo.pdf", List.of("boleto boleto boleto boleto pcmso pcmso pcmso pcmso pcmso pcmso"));
+
+        service = new DocumentRoutingService(new MockEnvironment(),
+                5, 30, MAX_BYTES, 15_000, 2, false, "tecnico@sesibahia.com.br", 1, 4);
+
+        // Os 30 primeiros caracteres só têm os boletos
+        assertThat(service.route(file, "application/pdf")).hasValueSatisfying(route -> {
+            assertThat(route.category()).isEqualTo("PROCESSOS");
+            assertThat(route.score()).isEqualTo(4);
+        });
+        assertThat(service.metrics()).containsEntry("avgExtractedChars", 30.0);
+    }
+
+    @Test
+    void fileOverMaxBytesIsNeverOpened() throws IOException {
+        File file = file("grande.pdf", "x".repeat(2048));
+        ScriptedRouting routing = scripted(1024, 15_000, 1, 4, () -> "PCMSO PCMSO PCMSO");
+
+        assertThat(routing.route(file, "application/pdf")).isEmpty();
+        assertThat(routing.extractions).hasValue(0);
+        assertThat(routing.metrics())
+                .containsEntry("fallbacks", 1L)
+                .containsEntry("failures", 0L)
+                .containsEntry("avgExtractedChars", 0.0);
+    }
+
+    @Test
+    void saturatedPoolFallsBackWithoutExtracting() throws Exception {
+        File file = file("contrato.pdf", "%PDF");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedRouting routing = scripted(MAX_BYTES, 10_000, 1, 1, () -> {
+            started.countDown();
+            release.await();
+            return "boleto boleto";
+        });
+
+        // Uma extração ocupa a única thread e outra fica na fila de tamanho 1
+        CompletableFuture<Optional<Route>> running = CompletableFuture.supplyAsync(() -> routing.route(file, "application/pdf"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<Route>> queued = CompletableFuture.supplyAsync(() -> routing.route(file, "application/pdf"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> routing.metrics().get("queued").equals(1));
+
+        assertThat(routing.route(file, "application/pdf")).isEmpty();
+        assertThat(routing.metrics()).containsEntry("rejected", 1L);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).hasValueSatisfying(route ->
+                assertThat(route.category()).isEqualTo("PROCESSOS"));
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(routing.extractions).hasValue(2);
+    }
+
+    @Test
+    void slowExtractionFallsBackAfterTimeout() throws IOException {
+        File file = file("lento.pdf", "%PDF");
+        ScriptedRouting routing = scripted(MAX_BYTES, 100, 1, 4, () -> {
+            new CountDownLatch(1).await();
+            return "boleto boleto";
+        });
+
+        assertThat(routing.route(file, "application/pdf")).isEmpty();
+        assertThat(routing.metrics())
+                .containsEntry("timeouts", 1L)
+                .containsEntry("fallbacks", 1L)
+                .containsEntry("classified", 0L);
+    }
+
+    private ScriptedRouting scripted(long maxBytes, long timeoutMs, int threads, int queueCapacity,
+                                     Callable<String> extraction) {
+        ScriptedRouting routing = new ScriptedRouting(new MockEnvironment(), maxBytes, timeoutMs, threads, queueCapacity);
+        routing.extraction = extraction;
+        service = routing;
+        return routing;
+    }
+
+    private File file(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+
+    private File pdf(String name, List<String> pages) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (String text : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.newLineAtOffset(50, 700);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+
+    /**
+     * Troca a extração real por uma roteirizada, para segurar a thread do
+     * pool ou contar quantas vezes o arquivo foi aberto.
+     */
+    private static class ScriptedRouting extends DocumentRoutingService {
+
+        final AtomicInteger extractions = new AtomicInteger();
+        volatile Callable<String> extraction = () -> "";
+
+        ScriptedRouting(Environment environment, long maxBytes, long timeoutMs, int threads, int queueCapacity) {
+            super(environment, 5, 20_000, maxBytes, timeoutMs, 2, false, "tecnico@sesibahia.com.br", threads, queueCapacity);
+        }
+
+        @Override
+        String extractText(File file, String mediaType) throws Exception {
+            extractions.incrementAndGet();
+            return extraction.call();
+        }
+    }
+
+    private DocumentRoutingService routing() {
+        return routing(new MockEnvironment(), 2);
+    }
+
+    private DocumentRoutingService routing(MockEnvironment environment, int minScore) {
+        if (service != null) {
+            service.shutdown();
+        }
+        service = new DocumentRoutingService(environment,
+                5, 20_000, 10L * 1024 * 1024, 15_000, minScore, false, "tecnico@sesibahia.com.br", 2, 16);
+        return service;
+    }
+}
@@ -0,0 +1,87 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Eventos do sistema de arquivos até a chamada de reindexação/remoção, com a
+ * indexação falsa. O debounce é curto para o teste, mas maior que a rajada.
+ */
+class DocumentWatcherServiceTest {
+
+    private static final long DEBOUNCE_MS = 400;
+
+    @TempDir
+    Path documents;
+
+    private DocumentIndexingService indexing;
+    private DocumentWatcherService watcher;
+
+    @BeforeEach
+    void setUp() {
+        indexing = mock(DocumentIndexingService.class);
+        when(indexing.isIndexable(any())).thenReturn(true);
+
+        KnowledgePartition partition = new KnowledgePartition("default", documents.toAbsolutePath().normalize(),
+                "public", "vector_store", null, Set.of(), Set.of());
+        watcher = new DocumentWatcherService(indexing, new KnowledgePartitionRegistry(List.of(partition)));
+        ReflectionTestUtils.setField(watcher, "watchEnabled", true);
+        ReflectionTestUtils.setField(watcher, "watchMode", "native");
+        ReflectionTestUtils.setField(watcher, "debounceMs", DEBOUNCE_MS);
+        ReflectionTestUtils.setField(watcher, "pollIntervalMs", 100L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    void burstOfModificationsTriggersASingleReindex() throws Exception {
+        Path path = Files.writeString(documents.resolve("pcmso.txt"), "versão 0");
+        watcher.start();
+
+        for (int i = 1; i <= 5; i++) {
+            Files.writeString(path, "versão " + i);
+            Thread.sleep(30);
+        }
+
+        File file = path.toFile();
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> verify(indexing).reindexFile(file));
+        // Passado mais um debounce, continua uma chamada só
+        await().during(Duration.ofMillis(DEBOUNCE_MS * 2)).atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> verify(indexing, times(1)).reindexFile(any()));
+        verify(indexing, never()).removeFile(any());
+    }
+
+    @Test
+    void deletedFileIsRemovedFromTheIndex() throws IOException {
+        Path path = Files.writeString(documents.resolve("pgr.txt"), "PGR");
+        watcher.start();
+
+        Files.delete(path);
+
+        File file = path.toFile();
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> verify(indexing).removeFile(file));
+        verify(indexing, never()).reindexFile(any());
+    }
+}
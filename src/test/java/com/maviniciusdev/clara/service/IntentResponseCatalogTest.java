@@ -0,0 +1,167 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentResponseCatalogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * A cadeia de if/matches que existia no MessageProcessingService, na mesma ordem.
+     */
+    private record LegacyIntent(String name, String regex, int maxWords) {
+
+        boolean matches(String normalizedMessage) {
+            return normalizedMessage.matches(regex)
+                    && (maxWords == Integer.MAX_VALUE || normalizedMessage.split(" ").length <= maxWords);
+        }
+    }
+
+    private static final List<LegacyIntent> LEGACY = List.of(
+            new LegacyIntent("saudacao", ".*(oi|olá|ola|hey|opa|bom dia|boa tarde|boa noite).*", 3),
+            new LegacyIntent("atendente", ".*(atendente|pessoa|humano|alguém|transferir|falar com alguém).*", Integer.MAX_VALUE),
+            new LegacyIntent("financeiro", ".*(financeiro|pagamento|fatura|boleto|cobrança|pagar|preço|valor|custo).*", Integer.MAX_VALUE),
+            new LegacyIntent("equipe-tecnica", ".*(tecnic|visita|avaliação|pgr|pcmso|documento|laudo).*", Integer.MAX_VALUE),
+            new LegacyIntent("agendamento", ".*(exame|consulta|agendar|marcar|horário|vaga).*", Integer.MAX_VALUE),
+            new LegacyIntent("cadastro", ".*(cadastro|cadastrar|registro|contratar|contrato).*", Integer.MAX_VALUE),
+            new LegacyIntent("menu", ".*(menu|opções|ajuda|comandos|o que você faz).*", Integer.MAX_VALUE),
+            new LegacyIntent("agradecimento", ".*(obrigad|valeu|vlw|muito obrigado|agradeço).*", Integer.MAX_VALUE),
+            new LegacyIntent("despedida", ".*(tchau|até logo|até mais|bye|flw|adeus).*", Integer.MAX_VALUE),
+            new LegacyIntent("confirmacao", ".*(ok|entendi|certo|beleza|show|tá bom).*", 2)
+    );
+
+    private static final List<String> MESSAGES = List.of(
+            "oi", "olá clara", "bom dia", "boa tarde pessoal", "oi tudo bem com você?", "opa",
+            "quero falar com um atendente", "me transfere pra um humano", "tem alguém aí?",
+            "como pago o boleto", "qual o valor do pcmso?", "preço do exame admissional",
+            "preciso de uma visita técnica", "quando sai o laudo", "o pgr da minha empresa venceu",
+            "quero agendar exame", "tem vaga amanhã?", "qual o horário de funcionamento",
+            "como faço o cadastro da empresa", "quero contratar o sesi", "menu", "me ajuda",
+            "o que você faz", "obrigado", "muito obrigada!", "valeu", "tchau", "até mais", "bye",
+            "ok", "entendi", "tá bom", "ok obrigado", "certo, e o prazo?", "show de bola mesmo",
+            "qual o prazo de entrega do pcmso para empresas grandes", "quanto tempo demora",
+            "cnpj 12.345.678/0001-90", "", "   ", "hey hey hey hey"
+    );
+
+    @Test
+    void jsonKeepsTheLegacyPatternsInTheSameOrder() throws IOException {
+        IntentResponseCatalog.IntentFile file = readBundled();
+
+        assertThat(file.intents()).extracting(IntentResponseCatalog.IntentDefinition::name)
+                .containsExactlyElementsOf(LEGACY.stream().map(LegacyIntent::name).toList());
+        for (int i = 0; i < LEGACY.size(); i++) {
+            IntentResponseCatalog.IntentDefinition definition = file.intents().get(i);
+            assertThat(".*(" + definition.pattern() + ").*").isEqualTo(LEGACY.get(i).regex());
+            assertThat(definition.maxWords() != null ? definition.maxWords() : Integer.MAX_VALUE)
+                    .isEqualTo(LEGACY.get(i).maxWords());
+        }
+    }
+
+    @Test
+    void findPicksTheSameIntentAsTheLegacyMatchesChain() throws IOException {
+        IntentResponseCatalog catalog = catalog(new ClassPathResource("intents/respostas.json"));
+        List<IntentResponseCatalog.IntentDefinition> definitions = readBundled().intents();
+
+        for (String message : MESSAGES) {
+            String normalized = message.toLowerCase().trim();
+            Optional<String> legacy = LEGACY.stream().filter(intent -> intent.matches(normalized))
+                    .map(LegacyIntent::name).findFirst();
+
+            Optional<List<String>> reply = catalog.match(normalized, "Bom dia", null);
+
+            assertThat(reply.isPresent()).as("mensagem '%s'", message).isEqualTo(legacy.isPresent());
+            legacy.ifPresent(name -> {
+                String expected = definitions.stream().filter(d -> d.name().equals(name)).findFirst()
+                        .orElseThrow().response().replace("{saudacao}", "Bom dia").replace("{nome}", "");
+                assertThat(String.join("", reply.get())).as("mensagem '%s'", message).isEqualTo(expected);
+            });
+        }
+    }
+
+    @Test
+    void greetingAndFirstNameMatchTheLegacyFormat() {
+        IntentResponseCatalog catalog = catalog(new ClassPathResource("intents/respostas.json"));
+
+        List<String> withName = catalog.match("oi", "Boa tarde", "Ana").orElseThrow();
+        List<String> withoutName = catalog.match("oi", "Boa noite", null).orElseThrow();
+
+        // O formato antigo: String.format("%s%s! Tudo bem?...", greeting, " " + firstName)
+        assertThat(withName.get(0)).startsWith("Boa tarde Ana! Tudo bem?");
+        assertThat(withoutName.get(0)).startsWith("Boa noite! Tudo bem?");
+        // A parte pronta em cache não é alterada pela troca do nome
+        assertThat(catalog.match("oi", "Boa tarde", null).orElseThrow().get(0)).startsWith("Boa tarde! Tudo bem?");
+    }
+
+    @Test
+    void multilineMessageNowMatches() {
+        IntentResponseCatalog catalog = catalog(new ClassPathResource("intents/respostas.json"));
+        String message = "preciso do boleto\nde março";
+
+        // "." não casa quebra de linha: o matches(".*(..).*") antigo deixava passar para o RAG
+        assertThat(LEGACY.get(2).matches(message)).isFalse();
+        assertThat(catalog.match(message, "Bom dia", null)).isPresent();
+    }
+
+    @Test
+    void fileOnDiskIsReloadedWhenItChanges(@TempDir Path dir) throws IOException {
+        Path json = dir.resolve("respostas.json");
+        writeIntents(json, "Versão 1");
+        IntentResponseCatalog catalog = catalog(new FileSystemResource(json));
+
+        assertThat(catalog.match("menu", "Bom dia", null)).contains(List.of("Versão 1"));
+
+        writeIntents(json, "Versão 2");
+        touch(json, 2_000);
+        assertThat(catalog.match("menu", "Bom dia", null)).contains(List.of("Versão 2"));
+
+        // JSON quebrado: fica a versão anterior
+        Files.writeString(json, "{ \"intents\": [");
+        touch(json, 4_000);
+        assertThat(catalog.match("menu", "Bom dia", null)).contains(List.of("Versão 2"));
+    }
+
+    private IntentResponseCatalog catalog(Resource location) {
+        IntentResponseCatalog catalog = new IntentResponseCatalog(objectMapper, new MessageSplitter());
+        ReflectionTestUtils.setField(catalog, "location", location);
+        ReflectionTestUtils.setField(catalog, "reloadCheckMs", 0L);
+        try {
+            catalog.load();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return catalog;
+    }
+
+    private IntentResponseCatalog.IntentFile readBundled() throws IOException {
+        try (InputStream in = new ClassPathResource("intents/respostas.json").getInputStream()) {
+            return objectMapper.readValue(in, IntentResponseCatalog.IntentFile.class);
+        }
+    }
+
+    private void writeIntents(Path json, String response) throws IOException {
+        IntentResponseCatalog.IntentFile file = new IntentResponseCatalog.IntentFile(List.of(
+                new IntentResponseCatalog.IntentDefinition("menu", "menu", null, response)));
+        objectMapper.writeValue(json.toFile(), file);
+    }
+
+    // O mtime pode ter resolução de segundos: garante que mudou
+    private static void touch(Path file, long offsetMillis) throws IOException {
+        Files.setLastModifiedTime(file, java.nio.file.attribute.FileTime.fromMillis(
+                System.currentTimeMillis() + offsetMillis));
+    }
+}
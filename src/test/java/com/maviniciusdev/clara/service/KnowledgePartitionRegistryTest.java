@@ -0,0 +1,93 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnowledgePartitionRegistryTest {
+
+    @TempDir
+    Path documents;
+
+    private KnowledgePartition defaultPartition;
+    private KnowledgePartition camacari;
+    private KnowledgePartition camacariObras;
+    private KnowledgePartition feira;
+    private KnowledgePartitionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        // Raízes aninhadas: camacari dentro da default, obras dentro de camacari
+        defaultPartition = partition("default", documents,
+                Set.of("whatsapp:+557130000000"), Set.of());
+        camacari = partition("camacari", documents.resolve("camacari"),
+                Set.of("whatsapp:+557130000001"), Set.of("whatsapp:+5571999990000"));
+        camacariObras = partition("camacari_obras", documents.resolve("camacari").resolve("obras"),
+                Set.of(), Set.of());
+        feira = partition("feira", documents.resolve("..").resolve("feira"),
+                Set.of("whatsapp:+557530000001"), Set.of());
+
+        registry = new KnowledgePartitionRegistry(List.of(defaultPartition, camacariObras, camacari, feira));
+    }
+
+    @Test
+    void resolvePrefersSenderMappingOverReceivingNumber() {
+        // Cliente mapeado para Camaçari escrevendo para o número de Feira
+        assertThat(registry.resolve("whatsapp:+5571999990000", "whatsapp:+557530000001")).isSameAs(camacari);
+    }
+
+    @Test
+    void resolveFallsBackToReceivingNumberAndThenDefault() {
+        assertThat(registry.resolve("whatsapp:+5511988887777", "whatsapp:+557530000001")).isSameAs(feira);
+        assertThat(registry.resolve("whatsapp:+5511988887777", "whatsapp:+551100000000")).isSameAs(defaultPartition);
+        assertThat(registry.resolve(null, null)).isSameAs(defaultPartition);
+    }
+
+    @Test
+    void forFileMostSpecificRootWins() {
+        assertThat(registry.forFile(documents.resolve("pcmso.pdf").toFile())).contains(defaultPartition);
+        assertThat(registry.forFile(documents.resolve("camacari/pgr.pdf").toFile())).contains(camacari);
+        // Registrada antes da pai, ainda assim ganha
+        assertThat(registry.forFile(documents.resolve("camacari/obras/aso.pdf").toFile())).contains(camacariObras);
+    }
+
+    @Test
+    void forFileNormalizesRelativeSegmentsAndRejectsOutsiders() {
+        File viaDots = documents.resolve("camacari/obras/../pgr.pdf").toFile();
+        assertThat(registry.forFile(viaDots)).contains(camacari);
+
+        assertThat(registry.forFile(documents.resolve("../feira/exames.xlsx").toFile())).contains(feira);
+        assertThat(registry.forFile(documents.resolve("../outro/planilha.xlsx").toFile())).isEmpty();
+    }
+
+    @Test
+    void containsIsPathAwareNotStringPrefix() {
+        // "camacari_antigo" começa com "camacari" como texto, mas não é subpasta
+        assertThat(camacari.contains(documents.resolve("camacari_antigo/pgr.pdf"))).isFalse();
+        assertThat(registry.forFile(documents.resolve("camacari_antigo/pgr.pdf").toFile())).contains(defaultPartition);
+
+        assertThat(camacari.contains(documents.resolve("camacari"))).isTrue();
+        assertThat(camacari.contains(documents.resolve("camacari/a/b/c.docx"))).isTrue();
+    }
+
+    @Test
+    void byNameAndDefault() {
+        assertThat(registry.defaultPartition()).isSameAs(defaultPartition);
+        assertThat(registry.byName("feira")).contains(feira);
+        assertThat(registry.byName("inexistente")).isEqualTo(Optional.empty());
+        assertThat(registry.all()).containsExactly(defaultPartition, camacariObras, camacari, feira);
+    }
+
+    private static KnowledgePartition partition(String name, Path root, Set<String> to, Set<String> from) {
+        return new KnowledgePartition(name, root.toAbsolutePath().normalize(), "public", "vector_store_" + name,
+                null, to, from);
+    }
+}
@@ -0,0 +1,78 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LexicalOverlapRerankerTest {
+
+    private static final String QUESTION = "Qual o prazo de entrega do PCMSO?";
+
+    @Test
+    void lexicalMatchOvertakesBetterDenseScore() {
+        Document generic = candidate("Horário de atendimento da unidade de segunda a sexta.", 0.2);
+        Document specific = candidate("O prazo de entrega do PCMSO é de 10 dias úteis.", 0.4);
+
+        List<Document> reranked = new LexicalOverlapReranker(0.5).rerank(QUESTION, List.of(generic, specific), 2);
+
+        // genérico: 0.5 * 0.8 + 0.5 * 0 = 0.4; específico: 0.5 * 0.6 + 0.5 * 1 = 0.8
+        assertThat(reranked).extracting(Document::getId).containsExactly(specific.getId(), generic.getId());
+        assertThat((double) reranked.get(0).getMetadata().get("rerank_score")).isCloseTo(0.8, within(1e-9));
+        assertThat((double) reranked.get(1).getMetadata().get("rerank_score")).isCloseTo(0.4, within(1e-9));
+    }
+
+    @Test
+    void denseWeightOneKeepsVectorOrder() {
+        Document generic = candidate("Horário de atendimento da unidade de segunda a sexta.", 0.2);
+        Document specific = candidate("O prazo de entrega do PCMSO é de 10 dias úteis.", 0.4);
+
+        List<Document> reranked = new LexicalOverlapReranker(1.0).rerank(QUESTION, List.of(generic, specific), 2);
+
+        assertThat(reranked).extracting(Document::getId).containsExactly(generic.getId(), specific.getId());
+    }
+
+    @Test
+    void rarerTermsWeighMoreAndTopNCutsTheList() {
+        // "prazo" aparece em todos os candidatos, "pcmso" em um só: o IDF decide
+        Document prazoOnly = candidate("O prazo do PGR é de 30 dias.", 0.3);
+        Document pcmso = candidate("O PCMSO tem prazo definido em contrato.", 0.3);
+        Document prazoAgain = candidate("Prazo de agendamento de exames: 48 horas.", 0.3);
+
+        List<Document> reranked = new LexicalOverlapReranker(0.5)
+                .rerank(QUESTION, List.of(prazoOnly, pcmso, prazoAgain), 1);
+
+        assertThat(reranked).extracting(Document::getId).containsExactly(pcmso.getId());
+    }
+
+    @Test
+    void returnsCopiesWithoutTouchingTheCandidates() {
+        Document generic = candidate("Horário de atendimento da unidade.", 0.2);
+        Document specific = candidate("O prazo de entrega do PCMSO é de 10 dias úteis.", 0.4);
+
+        List<Document> reranked = new LexicalOverlapReranker(0.5).rerank(QUESTION, List.of(generic, specific), 2);
+
+        assertThat(generic.getMetadata()).doesNotContainKey("rerank_score");
+        assertThat(specific.getMetadata()).doesNotContainKey("rerank_score");
+        assertThat(reranked.get(0)).isNotSameAs(specific);
+        assertThat(reranked.get(0).getContent()).isEqualTo(specific.getContent());
+        assertThat(reranked.get(0).getMetadata()).containsEntry("distance", 0.4);
+    }
+
+    @Test
+    void termsDropAccentsStopwordsAndTruncate() {
+        assertThat(LexicalOverlapReranker.terms("Você sabe o prazo de ENTREGA dos exames?"))
+                .containsExactly("sabe", "prazo", "entreg", "exames");
+    }
+
+    private static Document candidate(String content, double distance) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("distance", distance);
+        return new Document(content, metadata);
+    }
+}
@@ -0,0 +1,110 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class MessageCoalescingServiceTest {
+
+    private static final int PHONES = 6;
+    private static final int MESSAGES_PER_PHONE = 40;
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+    private MessageCoalescingService service;
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void turnsOfTheSamePhoneRunOneAtATimeAndInOrder() throws Exception {
+        service = new MessageCoalescingService(15, 60);
+
+        Map<String, List<String>> answered = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+
+        // Turno "processado" num pool com vários threads e duração aleatória,
+        // como as filas do WorkScheduler
+        MessageCoalescingService.TurnHandler handler = (from, body, profileName) -> {
+            if (running.computeIfAbsent(from, key -> new AtomicInteger()).incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            return CompletableFuture.runAsync(() -> {
+                sleep(ThreadLocalRandom.current().nextInt(0, 25));
+                answered.computeIfAbsent(from, key -> new CopyOnWriteArrayList<>()).add(body);
+                delivered.addAndGet(body.split(" ").length);
+                running.get(from).decrementAndGet();
+            }, workers);
+        };
+
+        // Um thread por telefone, mensagens em rajadas e pausas intercaladas
+        ExecutorService senders = Executors.newFixedThreadPool(PHONES);
+        List<Future<?>> sending = new ArrayList<>();
+        for (int phone = 0; phone < PHONES; phone++) {
+            String from = "whatsapp:+55110000000" + phone;
+            sending.add(senders.submit(() -> {
+                for (int i = 0; i < MESSAGES_PER_PHONE; i++) {
+                    service.submit(from, String.valueOf(i), "Cliente", handler);
+                    sleep(ThreadLocalRandom.current().nextInt(0, 3) == 0 ? 30 : 2);
+                }
+            }));
+        }
+        for (Future<?> future : sending) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        senders.shutdown();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> delivered.get() == PHONES * MESSAGES_PER_PHONE);
+
+        assertThat(overlaps.get()).isZero();
+        List<String> expected = IntStream.range(0, MESSAGES_PER_PHONE).mapToObj(String::valueOf).toList();
+        answered.forEach((from, turns) -> {
+            List<String> parts = turns.stream().flatMap(turn -> Arrays.stream(turn.split(" "))).toList();
+            assertThat(parts).as("ordem das mensagens de %s", from).isEqualTo(expected);
+            // As pausas de 30 ms fecham a janela: houve mais de um turno
+            assertThat(turns.size()).isGreaterThan(1).isLessThan(MESSAGES_PER_PHONE);
+        });
+        assertThat(answered).hasSize(PHONES);
+    }
+
+    @Test
+    void failingHandlerDoesNotBlockTheNextTurn() {
+        service = new MessageCoalescingService(0, 0);
+        List<String> handled = new CopyOnWriteArrayList<>();
+
+        service.submit("whatsapp:+5511999990000", "primeira", null, (from, body, profileName) -> {
+            throw new IllegalStateException("falha simulada");
+        });
+        service.submit("whatsapp:+5511999990000", "segunda", null, (from, body, profileName) -> {
+            handled.add(body);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> handled.contains("segunda"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
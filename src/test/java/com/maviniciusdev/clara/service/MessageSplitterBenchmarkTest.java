@@ -0,0 +1,176 @@
+package com.maviniciusdev.clara.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparação de tempo com o algoritmo antigo. Fica fora do {@code mvn test}
+ * padrão; rode com {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class MessageSplitterBenchmarkTest {
+
+    private static final int ITERATIONS = 200;
+
+    private final MessageSplitter splitter = new MessageSplitter();
+
+    @Test
+    void benchmarkAgainstLegacySplitter() {
+        Random random = new Random(2024);
+        List<String> outputs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            outputs.add(MessageSplitterTest.randomText(random, 4_000 + random.nextInt(12_000)));
+        }
+
+        LegacyMessageSplitter legacy = new LegacyMessageSplitter();
+
+        // Aquecimento do JIT
+        long sink = run(legacy::split, outputs) + run(splitter::split, outputs);
+
+        long legacyNanos = System.nanoTime();
+        sink += run(legacy::split, outputs);
+        legacyNanos = System.nanoTime() - legacyNanos;
+
+        long currentNanos = System.nanoTime();
+        sink += run(splitter::split, outputs);
+        currentNanos = System.nanoTime() - currentNanos;
+
+        long operations = (long) outputs.size() * ITERATIONS;
+        log.info("MessageSplitter: legado {} µs/op, atual {} µs/op ({}x) [{}]",
+                String.format(Locale.ROOT, "%.1f", legacyNanos / 1_000.0 / operations),
+                String.format(Locale.ROOT, "%.1f", currentNanos / 1_000.0 / operations),
+                String.format(Locale.ROOT, "%.1f", (double) legacyNanos / Math.max(1, currentNanos)),
+                sink);
+
+        assertThat(currentNanos).isLessThan(legacyNanos);
+    }
+
+    private static long run(Function<String, List<String>> split, List<String> outputs) {
+        long parts = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String output : outputs) {
+                parts += split.apply(output).size();
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Cópia do algoritmo antigo (String.split com regex e StringBuilders),
+     * mantida só para esta comparação.
+     */
+    static class LegacyMessageSplitter {
+
+        private static final int MAX_MESSAGE_LENGTH = MessageSplitter.MAX_MESSAGE_LENGTH;
+
+        /**
+         * Divide mensagem longa de forma natural, respeitando parágrafos e frases
+         */
+        List<String> split(String message) {
+            List<String> parts = new ArrayList<>();
+
+            if (message.length() <= MAX_MESSAGE_LENGTH) {
+                parts.add(message);
+                return parts;
+            }
+
+            // Dividir por parágrafos primeiro
+            String[] paragraphs = message.split("\n\n");
+            StringBuilder currentPart = new StringBuilder();
+
+            for (int i = 0; i < paragraphs.length; i++) {
+                String paragraph = paragraphs[i];
+
+                // Se adicionar este parágrafo ultrapassar o limite
+                if (currentPart.length() + paragraph.length() + 2 > MAX_MESSAGE_LENGTH) {
+
+                    // Se o currentPart não está vazio, salva
+                    if (currentPart.length() > 0) {
+                        parts.add(currentPart.toString().trim());
+                        currentPart = new StringBuilder();
+                    }
+
+                    // Se o parágrafo sozinho é maior que o limite, dividir por frases
+                    if (paragraph.length() > MAX_MESSAGE_LENGTH) {
+                        parts.addAll(splitLongParagraph(paragraph));
+                    } else {
+                        currentPart.append(paragraph);
+
+                        // Adicionar quebra de linha se não for o último
+                        if (i < paragraphs.length - 1) {
+                            currentPart.append("\n\n");
+                        }
+                    }
+                } else {
+                    // Adicionar parágrafo ao currentPart
+                    if (currentPart.length() > 0) {
+                        currentPart.append("\n\n");
+                    }
+                    currentPart.append(paragraph);
+                }
+            }
+
+            // Adicionar última parte se houver
+            if (currentPart.length() > 0) {
+                parts.add(currentPart.toString().trim());
+            }
+
+            return parts;
+        }
+
+        /**
+         * Divide parágrafo muito longo por frases
+         */
+        private List<String> splitLongParagraph(String paragraph) {
+            List<String> parts = new ArrayList<>();
+
+            // Dividir por frases (pontos, interrogações, exclamações)
+            String[] sentences = paragraph.split("(?<=[.!?])\\s+");
+            StringBuilder currentPart = new StringBuilder();
+
+            for (String sentence : sentences) {
+
+                // Se adicionar esta frase ultrapassar o limite
+                if (currentPart.length() + sentence.length() + 1 > MAX_MESSAGE_LENGTH) {
+
+                    // Salvar parte atual
+                    if (currentPart.length() > 0) {
+                        parts.add(currentPart.toString().trim());
+                        currentPart = new StringBuilder();
+                    }
+
+                    // Se a frase sozinha é maior que o limite (raro), força quebra
+                    if (sentence.length() > MAX_MESSAGE_LENGTH) {
+                        parts.add(sentence.substring(0, MAX_MESSAGE_LENGTH - 3) + "...");
+                        sentence = sentence.substring(MAX_MESSAGE_LENGTH - 3);
+                    }
+
+                    currentPart.append(sentence);
+                } else {
+                    // Adicionar frase
+                    if (currentPart.length() > 0) {
+                        currentPart.append(" ");
+                    }
+                    currentPart.append(sentence);
+                }
+            }
+
+            // Adicionar última parte
+            if (currentPart.length() > 0) {
+                parts.add(currentPart.toString().trim());
+            }
+
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageSplitterTest {
+
+    private static final int MAX = MessageSplitter.MAX_MESSAGE_LENGTH;
+    private static final int RANDOM_CASES = 500;
+
+    private final MessageSplitter splitter = new MessageSplitter();
+
+    @Test
+    void shortMessageIsReturnedUnchanged() {
+        String message = "Oi! Tudo bem?\n\nMeu nome é Clara.";
+
+        assertThat(splitter.split(message)).containsExactly(message);
+    }
+
+    @Test
+    void everyPartFitsAndNoTextIsLost() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            int maxLength = i % 2 == 0 ? MAX : 20 + random.nextInt(400);
+            MessageSplitter splitter = new MessageSplitter(maxLength);
+            String text = randomText(random, 1 + random.nextInt(maxLength * 6));
+
+            List<String> parts = splitter.split(text);
+
+            assertThat(parts).isNotEmpty();
+            for (String part : parts) {
+                assertThat(part.length()).isLessThanOrEqualTo(maxLength);
+                if (text.length() > maxLength) {
+                    assertThat(part).isNotBlank();
+                    assertThat(part).isEqualTo(part.strip());
+                    assertThat(Character.isLowSurrogate(part.charAt(0))).isFalse();
+                    assertThat(Character.isHighSurrogate(part.charAt(part.length() - 1))).isFalse();
+                }
+            }
+            assertThat(withoutWhitespace(String.join("", parts))).isEqualTo(withoutWhitespace(text));
+        }
+    }
+
+    @Test
+    void paragraphsThatFitAreNeverBroken() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            List<String> paragraphs = new ArrayList<>();
+            int count = 2 + random.nextInt(12);
+            for (int p = 0; p < count; p++) {
+                paragraphs.add(randomSentences(random, 20 + random.nextInt(MAX - 500)).strip());
+            }
+            String text = String.join("\n\n", paragraphs);
+
+            List<String> parts = splitter.split(text);
+
+            for (String paragraph : paragraphs) {
+                assertThat(parts).anySatisfy(part -> assertThat(part).contains(paragraph));
+            }
+        }
+    }
+
+    @Test
+    void longParagraphIsSplitAtSentenceEnds() {
+        String sentence = "O PCMSO define os exames de cada função com base nos riscos do PGR. ";
+        String paragraph = sentence.repeat(MAX / sentence.length() * 3);
+
+        List<String> parts = splitter.split(paragraph);
+
+        assertThat(parts).hasSizeGreaterThan(1);
+        assertThat(parts).allSatisfy(part -> {
+            assertThat(part.length()).isLessThanOrEqualTo(MAX);
+            assertThat(part).endsWith(".");
+        });
+    }
+
+    @Test
+    void oversizedSentenceAndUnbrokenTokenStillFit() {
+        String hugeSentence = "palavra ".repeat(MAX);
+        String hugeToken = "https://www.sesibahia.com.br/" + "x".repeat(MAX * 2);
+
+        for (String text : List.of(hugeSentence, hugeToken, hugeSentence + "\n\n" + hugeToken)) {
+            List<String> parts = splitter.split(text);
+
+            assertThat(parts).allSatisfy(part -> assertThat(part.length()).isLessThanOrEqualTo(MAX));
+            assertThat(withoutWhitespace(String.join("", parts))).isEqualTo(withoutWhitespace(text));
+        }
+    }
+
+    /**
+     * Texto parecido com saída de LLM: parágrafos, frases, quebras simples,
+     * acentos, emojis e de vez em quando um token enorme sem espaços.
+     */
+    static String randomText(Random random, int targetLength) {
+        StringBuilder text = new StringBuilder(targetLength + 64);
+        while (text.length() < targetLength) {
+            int roll = random.nextInt(100);
+            if (roll < 3) {
+                text.append("https://sesi.br/").append("a".repeat(random.nextInt(2_000))).append(' ');
+            } else if (roll < 15) {
+                text.append("\n\n");
+            } else if (roll < 20) {
+                text.append('\n');
+            } else {
+                text.append(randomSentences(random, 40 + random.nextInt(300)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String randomSentences(Random random, int targetLength) {
+        String[] words = {"PGR", "PCMSO", "exame", "ocupacional", "prazo", "médico", "trabalho", "saúde",
+                "segurança", "empresa", "funcionário", "😊", "📋", "M1", "eSocial", "a", "de", "você"};
+        char[] endings = {'.', '!', '?'};
+
+        StringBuilder text = new StringBuilder(targetLength + 16);
+        while (text.length() < targetLength) {
+            int wordCount = 3 + random.nextInt(25);
+            for (int w = 0; w < wordCount; w++) {
+                if (w > 0) {
+                    text.append(' ');
+                }
+                text.append(words[random.nextInt(words.length)]);
+            }
+            text.append(endings[random.nextInt(endings.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String withoutWhitespace(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
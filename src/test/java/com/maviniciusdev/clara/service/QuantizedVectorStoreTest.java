@@ -0,0 +1,195 @@
+package com.maviniciusdev.clara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.PgVectorStore;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Índice em memória contra uma busca bruta em float: o PGVector e o modelo de
+ * embedding são mocks, os vetores são gaussianos com semente fixa.
+ */
+class QuantizedVectorStoreTest {
+
+    private static final int DIMENSIONS = 64;
+    private static final int DOCUMENTS = 2000;
+    private static final int QUERIES = 50;
+    private static final int TOP_K = 10;
+
+    private final Random random = new Random(42);
+    private final Map<String, float[]> queryVectors = new HashMap<>();
+
+    private PgVectorStore delegate;
+    private QuantizedVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PgVectorStore.class);
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(anyString())).thenAnswer(invocation -> queryVectors.get(invocation.<String>getArgument(0)));
+
+        store = new QuantizedVectorStore(delegate, embeddingModel, null, new ObjectMapper());
+        ReflectionTestUtils.setField(store, "oversample", 4);
+    }
+
+    @Test
+    void quantizationStaysWithinHalfAStep() {
+        float[] vector = gaussian();
+        byte[] codes = new byte[DIMENSIONS];
+
+        float scale = QuantizedVectorStore.quantize(vector, 0, codes, 0);
+
+        int maxCode = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            assertThat(Math.abs(codes[d] * scale - vector[d])).isLessThanOrEqualTo(scale / 2 + 1e-6f);
+            maxCode = Math.max(maxCode, Math.abs(codes[d]));
+        }
+        // O maior componente em módulo vira ±127
+        assertThat(maxCode).isEqualTo(127);
+    }
+
+    @Test
+    void zeroVectorQuantizesToZeroScale() {
+        byte[] codes = {1, 2, 3};
+
+        assertThat(QuantizedVectorStore.quantize(new float[3], 0, codes, 0)).isZero();
+        assertThat(codes).containsOnly(0);
+    }
+
+    @Test
+    void recallAtKMatchesBruteForceFloatSearch() {
+        List<Document> documents = randomDocuments(DOCUMENTS);
+        store.add(documents);
+        assertThat(store.size()).isEqualTo(DOCUMENTS);
+
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            String query = "consulta-" + q;
+            float[] vector = gaussian();
+            queryVectors.put(query, vector);
+
+            List<String> expected = bruteForce(documents, vector, TOP_K);
+            List<Document> found = store.similaritySearch(SearchRequest.query(query).withTopK(TOP_K));
+
+            assertThat(found).hasSize(TOP_K);
+            hits += (int) found.stream().map(Document::getId).filter(expected::contains).count();
+
+            // Re-ranking em precisão total: resultado ordenado por distância crescente
+            for (int i = 1; i < found.size(); i++) {
+                assertThat(distance(found.get(i))).isGreaterThanOrEqualTo(distance(found.get(i - 1)));
+            }
+        }
+
+        double recall = (double) hits / (QUERIES * TOP_K);
+        assertThat(recall).isGreaterThanOrEqualTo(0.99);
+    }
+
+    @Test
+    void distanceComesFromFullPrecisionVectors() {
+        List<Document> documents = randomDocuments(100);
+        store.add(documents);
+
+        Document target = documents.get(37);
+        queryVectors.put("mesmo-vetor", target.getEmbedding());
+
+        List<Document> found = store.similaritySearch(SearchRequest.query("mesmo-vetor").withTopK(1));
+
+        assertThat(found).extracting(Document::getId).containsExactly(target.getId());
+        assertThat(distance(found.get(0))).isCloseTo(0.0, within(1e-5));
+        assertThat(found.get(0).getContent()).isEqualTo(target.getContent());
+        assertThat(found.get(0).getMetadata()).containsEntry("source", target.getMetadata().get("source"));
+    }
+
+    @Test
+    void deleteRemovesDocumentsAndKeepsTheMovedSlotSearchable() {
+        List<Document> documents = randomDocuments(50);
+        store.add(documents);
+
+        Document deleted = documents.get(10);
+        Document last = documents.get(49);
+        store.delete(List.of(deleted.getId(), "id-inexistente"));
+
+        verify(delegate).delete(List.of(deleted.getId(), "id-inexistente"));
+        assertThat(store.size()).isEqualTo(49);
+
+        queryVectors.put("apagado", deleted.getEmbedding());
+        assertThat(store.similaritySearch(SearchRequest.query("apagado").withTopK(49)))
+                .extracting(Document::getId)
+                .isNotEmpty()
+                .doesNotContain(deleted.getId());
+
+        // O último slot foi movido para o lugar do apagado
+        queryVectors.put("ultimo", last.getEmbedding());
+        List<Document> found = store.similaritySearch(SearchRequest.query("ultimo").withTopK(1));
+        assertThat(found).extracting(Document::getId).containsExactly(last.getId());
+        assertThat(found.get(0).getContent()).isEqualTo(last.getContent());
+    }
+
+    @Test
+    void addingAnExistingIdReplacesItInPlace() {
+        List<Document> documents = randomDocuments(20);
+        store.add(documents);
+
+        Document replacement = new Document(documents.get(5).getId(), "conteúdo novo", Map.of("source", "novo.pdf"));
+        replacement.setEmbedding(gaussian());
+        store.add(List.of(replacement));
+
+        assertThat(store.size()).isEqualTo(20);
+        queryVectors.put("novo", replacement.getEmbedding());
+        List<Document> found = store.similaritySearch(SearchRequest.query("novo").withTopK(1));
+        assertThat(found.get(0).getContent()).isEqualTo("conteúdo novo");
+    }
+
+    private List<Document> randomDocuments(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Document doc = new Document(UUID.nameUUIDFromBytes(("doc-" + i).getBytes()).toString(),
+                    "trecho " + i, Map.of("source", "doc-" + i + ".pdf"));
+            doc.setEmbedding(gaussian());
+            return doc;
+        }).toList();
+    }
+
+    private float[] gaussian() {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static List<String> bruteForce(List<Document> documents, float[] query, int k) {
+        return documents.stream()
+                .sorted(Comparator.comparingDouble((Document doc) -> -cosine(query, doc.getEmbedding())))
+                .limit(k)
+                .map(Document::getId)
+                .toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int d = 0; d < a.length; d++) {
+            dot += a[d] * b[d];
+            normA += a[d] * a[d];
+            normB += b[d] * b[d];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static double distance(Document doc) {
+        return ((Number) doc.getMetadata().get("distance")).doubleValue();
+    }
+}
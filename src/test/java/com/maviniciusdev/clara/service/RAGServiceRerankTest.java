@@ -0,0 +1,84 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Só o trecho de busca e re-ranking: o ChatClient é um mock sem comportamento,
+ * então a geração falha e o serviço devolve a mensagem de erro padrão.
+ */
+class RAGServiceRerankTest {
+
+    private VectorStore vectorStore;
+    private DocumentReranker reranker;
+    private RAGService service;
+    private KnowledgePartition partition;
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = mock(VectorStore.class);
+        reranker = mock(DocumentReranker.class);
+        service = new RAGService(mock(ChatClient.Builder.class), mock(KnowledgePartitionRegistry.class),
+                reranker, new RagMetrics());
+        partition = new KnowledgePartition("default", Path.of("documents").toAbsolutePath(),
+                "public", "vector_store", vectorStore, Set.of(), Set.of());
+
+        ReflectionTestUtils.setField(service, "topK", 4);
+        ReflectionTestUtils.setField(service, "similarityThreshold", 0.6);
+        ReflectionTestUtils.setField(service, "rerankCandidates", 20);
+        ReflectionTestUtils.setField(service, "rerankTopN", 2);
+
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(
+                new Document("PCMSO em 10 dias", Map.of("distance", 0.2)),
+                new Document("PGR em 30 dias", Map.of("distance", 0.3)),
+                new Document("Horário de atendimento", Map.of("distance", 0.35))));
+    }
+
+    @Test
+    void disabledRerankSearchesTopKAndSkipsReranker() {
+        ReflectionTestUtils.setField(service, "rerankEnabled", false);
+
+        service.answerWithContext("prazo do PCMSO", partition);
+
+        assertThat(capturedTopK()).isEqualTo(4);
+        verify(reranker, never()).rerank(anyString(), anyList(), anyInt());
+    }
+
+    @Test
+    void enabledRerankFetchesCandidatesAndKeepsTopN() {
+        ReflectionTestUtils.setField(service, "rerankEnabled", true);
+
+        service.answerWithContext("prazo do PCMSO", partition);
+
+        assertThat(capturedTopK()).isEqualTo(20);
+        verify(reranker).rerank(eq("prazo do PCMSO"), anyList(), eq(2));
+    }
+
+    private int capturedTopK() {
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(vectorStore).similaritySearch(request.capture());
+        return request.getValue().getTopK();
+    }
+}
@@ -0,0 +1,72 @@
+package com.maviniciusdev.clara.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Classificação das respostas do Twilio falso, igual à do sender de verdade:
+ * 429 volta para a fila, 5xx pode tentar de novo e 4xx é recusa definitiva.
+ */
+class StubWhatsAppSenderTest {
+
+    private static final String URL = "http://stub/Messages.json";
+
+    private MockRestServiceServer server;
+    private StubWhatsAppSender sender;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        sender = new StubWhatsAppSender(builder, URL, "whatsapp:+5571999999999");
+    }
+
+    @Test
+    void acceptedMessageReturnsSid() {
+        server.expect(method(HttpMethod.POST))
+                .andExpect(content().formDataContains(Map.of("ContentSid", "HX1")))
+                .andRespond(withSuccess("{\"sid\":\"SM1\"}", MediaType.APPLICATION_JSON));
+
+        assertThat(sender.sendTemplate("whatsapp:+5571000000001", "HX1", null)).isEqualTo("SM1");
+    }
+
+    @Test
+    void tooManyRequestsIsRateLimited() {
+        server.expect(method(HttpMethod.POST)).andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS));
+
+        assertKind(WhatsAppSendException.Kind.RATE_LIMITED);
+    }
+
+    @Test
+    void serverErrorIsTransient() {
+        server.expect(method(HttpMethod.POST)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertKind(WhatsAppSendException.Kind.TRANSIENT);
+    }
+
+    @Test
+    void clientErrorIsRejected() {
+        server.expect(method(HttpMethod.POST)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        assertKind(WhatsAppSendException.Kind.REJECTED);
+    }
+
+    private void assertKind(WhatsAppSendException.Kind kind) {
+        assertThatThrownBy(() -> sender.send("whatsapp:+5571000000001", "Olá"))
+                .isInstanceOfSatisfying(WhatsAppSendException.class, e -> assertThat(e.getKind()).isEqualTo(kind));
+    }
+}
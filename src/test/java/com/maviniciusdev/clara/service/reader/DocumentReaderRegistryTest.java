@@ -0,0 +1,148 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DocumentReaderRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private DocumentReaderRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        if (registry != null) {
+            registry.shutdown();
+        }
+    }
+
+    /**
+     * Leitor de texto com um thread; arquivos "lento-*" esperam o latch.
+     */
+    private static class TextReader implements DocumentFormatReader {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final List<String> threadsByFile = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String format() {
+            return "txt";
+        }
+
+        @Override
+        public Set<String> extensions() {
+            return Set.of("txt", "md");
+        }
+
+        @Override
+        public int threads() {
+            return 1;
+        }
+
+        @Override
+        public void read(File file, Consumer<Document> sink) throws Exception {
+            threadsByFile.add(file.getName() + "@" + Thread.currentThread().getName());
+            if (file.getName().startsWith("lento-")) {
+                slowStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            for (String line : Files.readAllLines(file.toPath())) {
+                sink.accept(new Document(line, Map.of("file", file.getName())));
+            }
+        }
+    }
+
+    @Test
+    void resolvesReadersByExtensionIgnoringCaseAndOfficeLockFiles() {
+        registry = registry(new TextReader(), 4);
+
+        assertThat(registry.isSupported(new File("NOTAS.TXT"))).isTrue();
+        assertThat(registry.isSupported(new File("leia.md"))).isTrue();
+        assertThat(registry.isSupported(new File("~$planilha.txt"))).isFalse();
+        assertThat(registry.isSupported(new File("sem-extensao"))).isFalse();
+        assertThatIllegalArgumentException().isThrownBy(() -> registry.read(new File("foto.bmp"), doc -> {}));
+    }
+
+    @Test
+    void chunksReachTheSinkAndAreCounted() throws Exception {
+        registry = registry(new TextReader(), 4);
+        File file = write("pcmso.txt", "primeira linha\nsegunda linha\nterceira");
+        List<Document> chunks = new CopyOnWriteArrayList<>();
+
+        registry.read(file, chunks::add).get(5, TimeUnit.SECONDS);
+
+        assertThat(chunks).extracting(Document::getContent)
+                .containsExactly("primeira linha", "segunda linha", "terceira");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> txt = (Map<String, Object>) registry.metrics().get("txt");
+        assertThat(txt).containsEntry("files", 1L).containsEntry("documents", 3L).containsEntry("characters", 35L);
+    }
+
+    @Test
+    void fullQueueRunsTheReadOnTheCallingThread() throws Exception {
+        TextReader reader = new TextReader();
+        registry = registry(reader, 1);
+
+        // Um ocupando o único thread, outro ocupando a única vaga da fila
+        CompletableFuture<Void> running = registry.read(write("lento-1.txt", "a"), doc -> {});
+        reader.slowStarted.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> queued = registry.read(write("fila.txt", "b"), doc -> {});
+
+        // Pool e fila cheios: a leitura roda aqui e só volta quando termina
+        List<Document> chunks = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> overflow = registry.read(write("extra.txt", "c"), chunks::add);
+
+        assertThat(overflow).isDone();
+        assertThat(chunks).hasSize(1);
+        assertThat(reader.threadsByFile).contains("extra.txt@" + Thread.currentThread().getName());
+        assertThat(running).isNotDone();
+        assertThat(queued).isNotDone();
+
+        reader.release.countDown();
+        CompletableFuture.allOf(running, queued).get(5, TimeUnit.SECONDS);
+        assertThat(reader.threadsByFile).anyMatch(entry -> entry.startsWith("fila.txt@reader-txt-"));
+    }
+
+    @Test
+    void readerFailureCompletesExceptionallyAndCountsAFailure() {
+        registry = registry(new TextReader(), 4);
+
+        CompletableFuture<Void> result = registry.read(new File(dir.toFile(), "nao-existe.txt"), doc -> {});
+
+        assertThat(result).failsWithin(5, TimeUnit.SECONDS);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> txt = (Map<String, Object>) registry.metrics().get("txt");
+        assertThat(txt).containsEntry("failures", 1L).containsEntry("files", 0L);
+    }
+
+    private DocumentReaderRegistry registry(DocumentFormatReader reader, int queueCapacity) {
+        DocumentReaderRegistry registry = new DocumentReaderRegistry(List.of(reader));
+        ReflectionTestUtils.setField(registry, "queueCapacity", queueCapacity);
+        registry.registerReaders();
+        return registry;
+    }
+
+    private File write(String name, String content) throws Exception {
+        return Files.writeString(dir.resolve(name), content).toFile();
+    }
+}
@@ -0,0 +1,100 @@
+package com.maviniciusdev.clara.service.reader;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saída dos leitores em streaming: um documento por página (PDF) e por bloco
+ * de linhas (XLSX), com os metadados de posição.
+ */
+class FormatReadersTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pdfEmitsOneDocumentPerNonBlankPage() throws Exception {
+        File file = dir.resolve("pcmso.pdf").toFile();
+        try (PDDocument pdf = new PDDocument()) {
+            addPage(pdf, "Programa de Controle Medico de Saude Ocupacional");
+            addPage(pdf, null);
+            addPage(pdf, "Exames complementares por funcao");
+            pdf.save(file);
+        }
+
+        List<Document> pages = new ArrayList<>();
+        new PdfFormatReader().read(file, pages::add);
+
+        assertThat(pages).hasSize(2);
+        assertThat(pages.get(0).getContent()).contains("Programa de Controle Medico");
+        assertThat(pages.get(0).getMetadata()).containsEntry("page_number", 1).containsEntry("total_pages", 3);
+        assertThat(pages.get(1).getContent()).contains("Exames complementares");
+        assertThat(pages.get(1).getMetadata()).containsEntry("page_number", 3);
+    }
+
+    @Test
+    void xlsxGroupsRowsIntoBlocksPerSheet() throws Exception {
+        File file = dir.resolve("exames.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file)) {
+            Sheet exames = workbook.createSheet("Exames");
+            for (int i = 0; i < 120; i++) {
+                Row row = exames.createRow(i);
+                row.createCell(0).setCellValue("Exame " + (i + 1));
+                row.createCell(1).setCellValue(" ");
+                row.createCell(2).setCellValue(10 + i);
+            }
+            // Linha só com célula em branco não entra no bloco
+            exames.createRow(200).createCell(0).setCellValue("");
+
+            Sheet precos = workbook.createSheet("Precos");
+            precos.createRow(0).createCell(0).setCellValue("Audiometria");
+            precos.createRow(1).createCell(0).setCellValue("Espirometria");
+            workbook.write(out);
+        }
+
+        XlsxFormatReader reader = new XlsxFormatReader();
+        ReflectionTestUtils.setField(reader, "rowsPerDocument", 50);
+        List<Document> blocks = new ArrayList<>();
+        reader.read(file, blocks::add);
+
+        assertThat(blocks).extracting(doc -> doc.getMetadata().get("sheet") + ":" + doc.getMetadata().get("rows"))
+                .containsExactly("Exames:1-50", "Exames:51-100", "Exames:101-120", "Precos:1-2");
+        assertThat(blocks.get(0).getContent()).startsWith("Exame 1 | 10\nExame 2 | 11\n");
+        assertThat(blocks.get(2).getContent().split("\n")).hasSize(20).endsWith("Exame 120 | 129");
+        assertThat(blocks.get(3).getContent()).isEqualTo("Audiometria\nEspirometria\n");
+    }
+
+    private static void addPage(PDDocument pdf, String text) throws Exception {
+        PDPage page = new PDPage();
+        pdf.addPage(page);
+        if (text == null) {
+            return;
+        }
+        try (PDPageContentStream content = new PDPageContentStream(pdf, page)) {
+            content.beginText();
+            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+            content.newLineAtOffset(50, 700);
+            content.showText(text);
+            content.endText();
+        }
+    }
+}